@@ -0,0 +1,87 @@
+package com.byzantinegenerals;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a full execution of OM(m) for a grid of generals, recursion levels and traitor placements.
+ * <p>The number of traitors is 'm', as in the command line execution. Only the configurations with more than '3m'
+ * generals, where OM(m) reaches agreement, are benchmarked.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-jmh.xml")
+@State(Scope.Thread)
+public class AlgorithmOMmBenchmark {
+
+    /**
+     * Where the traitors are placed among the lieutenants.
+     */
+    public enum Placement {
+        FIRST,
+        LAST,
+        SPREAD
+    }
+
+    /**
+     * The number of generals and the recursion level, as 'n:m'.
+     */
+    @Param({"4:1", "7:1", "7:2", "10:1", "10:2", "10:3", "13:1", "13:2", "13:3"})
+    private String generals;
+
+    private int n;
+    private int m;
+
+    @Param({"FIRST", "LAST", "SPREAD"})
+    private Placement placement;
+
+    @Param({"true", "false"})
+    private boolean loyalCommander;
+
+    private boolean[] loyal;
+
+    @Setup
+    public void setUp() {
+        String[] nm = generals.split(":");
+        n = Integer.parseInt(nm[0]);
+        m = Integer.parseInt(nm[1]);
+        loyal = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            loyal[i] = true;
+        }
+
+        int traitors = Math.min(m, n - 1);
+        if (!loyalCommander) {
+            loyal[0] = false;
+            traitors--;
+        }
+        int lieutenants = n - 1;
+        for (int t = 0; t < traitors; t++) {
+            switch (placement) {
+                case FIRST:
+                    loyal[1 + t] = false;
+                    break;
+                case LAST:
+                    loyal[n - 1 - t] = false;
+                    break;
+                case SPREAD:
+                    loyal[1 + t * lieutenants / traitors] = false;
+                    break;
+            }
+        }
+    }
+
+    @Benchmark
+    public boolean executeAlgorithmOMm() {
+        List<General> generals = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            generals.add(new General("G" + i, loyal[i]));
+        }
+        return new ByzantineGenerals(generals, Order.ATTACK, m).executeAlgorithmOMm();
+    }
+}
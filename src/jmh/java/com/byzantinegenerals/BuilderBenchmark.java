@@ -0,0 +1,38 @@
+package com.byzantinegenerals;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Benchmarks building a ByzantineGenerals for large lists of general names, with a quarter of them traitors.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-jmh.xml")
+@State(Scope.Thread)
+public class BuilderBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private List<String> generalNames;
+
+    @Setup
+    public void setUp() {
+        generalNames = IntStream.range(0, size).mapToObj(i -> "G" + i).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public ByzantineGenerals build() {
+        return new ByzantineGenerals.Builder(generalNames)
+                .setCommanderOrder(Order.ATTACK)
+                .setRecursionLevel(size / 4)
+                .build();
+    }
+}
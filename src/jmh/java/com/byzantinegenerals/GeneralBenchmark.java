@@ -0,0 +1,72 @@
+package com.byzantinegenerals;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks a lieutenant receiving the orders of a OM(2) execution and calculating their majority.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-jmh.xml")
+@State(Scope.Thread)
+public class GeneralBenchmark {
+
+    @Param({"4", "16", "64"})
+    private int lieutenants;
+
+    private General general;
+    private Message order;
+    private Message[] messages;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        General[] senders = new General[lieutenants];
+        for (int i = 0; i < lieutenants; i++) {
+            senders[i] = new General("G" + i, true);
+        }
+
+        order = new Message(Order.ATTACK, new General("C", true));
+
+        // the orders relayed to the lieutenant at levels 1 and 2 (the lieutenant itself is the last one)
+        List<Message> messages = new ArrayList<>();
+        Path root = Path.root(lieutenants);
+        for (int i = 0; i < lieutenants - 1; i++) {
+            Path path = root.child(i);
+            messages.add(new Message(i % 3 == 0 ? Order.RETREAT : Order.ATTACK, senders[i], path));
+            for (int j = 0; j < lieutenants - 1; j++) {
+                if (j != i) {
+                    messages.add(new Message(j % 3 == 0 ? Order.RETREAT : Order.ATTACK, senders[j], path.child(j > i ? j - 1 : j)));
+                }
+            }
+        }
+        this.messages = messages.toArray(new Message[0]);
+
+        general = new General("L", true);
+        general.prepare(lieutenants, 2);
+    }
+
+    @Benchmark
+    public General receiveOrder() {
+        general.receiveOrder(messages[next]);
+        next = (next + 1) % messages.length;
+        return general;
+    }
+
+    @Benchmark
+    public Order majorityOrder() {
+        General general = new General("L", true);
+        general.prepare(lieutenants, 2);
+        general.receiveOrder(order);
+        for (Message message : messages) {
+            general.receiveOrder(message);
+        }
+        return general.majorityOrder();
+    }
+}
@@ -0,0 +1,48 @@
+package com.byzantinegenerals;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the steady state of the OM(m) recursion, steps (1) and (2), over generals whose information trees are
+ * already prepared, so the GC profiler reports the allocations of the recursion itself (expected none, as the WARN
+ * level of the benchmark configuration disables the message logging).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-jmh.xml")
+@State(Scope.Thread)
+public class RecursionBenchmark {
+
+    @Param({"7", "10", "13"})
+    private int n;
+
+    @Param({"2", "3"})
+    private int m;
+
+    private General commander;
+    private AlgorithmOMm.Recursion recursion;
+
+    @Setup
+    public void setUp() {
+        List<General> lieutenants = new ArrayList<>(n - 1);
+        for (int i = 1; i < n; i++) {
+            lieutenants.add(new General(i, "G" + i, i % 3 != 0));
+        }
+        commander = new General(0, "G0", true);
+        commander.setOrder(Order.ATTACK);
+        new AlgorithmOMm().prepare(lieutenants, m);
+        recursion = new AlgorithmOMm.Recursion(n - 1, m).reset(lieutenants.toArray(new General[0]), AlgorithmOMm.indexes(n - 1), n - 1);
+    }
+
+    @Benchmark
+    public General recursion() {
+        recursion.algorithmOMm(commander, 0, n - 1, m, 0, 0);
+        return commander;
+    }
+}
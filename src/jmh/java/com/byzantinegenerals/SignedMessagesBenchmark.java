@@ -0,0 +1,64 @@
+package com.byzantinegenerals;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares OM(m) and SM(m) for the same generals and recursion levels, with 'm' traitors spread among the
+ * lieutenants.
+ * <p>The keys of SM(m) are created once per trial, as they would be distributed before the generals exchange orders.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Dlog4j.configurationFile=log4j2-jmh.xml")
+@State(Scope.Thread)
+public class SignedMessagesBenchmark {
+
+    /**
+     * The algorithm executed by the generals.
+     */
+    public enum Messages {
+        ORAL,
+        SIGNED
+    }
+
+    @Param({"7", "10", "13"})
+    private int n;
+
+    @Param({"1", "2", "3", "4"})
+    private int m;
+
+    @Param({"ORAL", "SIGNED"})
+    private Messages messages;
+
+    private boolean[] loyal;
+    private Signer signer;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loyal = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            loyal[i] = true;
+        }
+        int lieutenants = n - 1;
+        for (int t = 0; t < m; t++) {
+            loyal[1 + t * lieutenants / m] = false;
+        }
+        signer = new Signer(n);
+    }
+
+    @Benchmark
+    public boolean executeAlgorithm() {
+        List<General> generals = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            generals.add(new General("G" + i, loyal[i]));
+        }
+        Algorithm algorithm = messages == Messages.SIGNED ? new AlgorithmSMm(signer) : new AlgorithmOMm();
+        return new ByzantineGenerals(generals, Order.ATTACK, m, algorithm).executeAlgorithmOMm();
+    }
+}
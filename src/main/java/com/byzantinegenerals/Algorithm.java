@@ -0,0 +1,33 @@
+package com.byzantinegenerals;
+
+import java.util.List;
+
+/**
+ * Defines a agreement algorithm executed by the generals.
+ */
+public interface Algorithm {
+
+    /**
+     * Executes the algorithm: the commander sends its order and, when this method returns, every lieutenant has
+     * decided its order.
+     *
+     * @param commander Commander, with its order already set
+     * @param lieutenants List of Lieutenants
+     * @param m recursive level (or the number of traitors tolerated)
+     */
+    void execute(General commander, List<General> lieutenants, int m);
+
+    /**
+     * Checks if the algorithm guarantees the agreement whatever the traitors send, so there is no adversary to search
+     * for. By default, no guarantee is known.
+     *
+     * @param generals The number of generals, the commander included
+     * @param traitors The number of traitors
+     * @param m recursive level (or the number of traitors tolerated)
+     * @return True if the loyal lieutenants always satisfy IC1 and IC2.
+     */
+    default boolean tolerates(int generals, int traitors, int m) {
+        return false;
+    }
+
+}
@@ -0,0 +1,243 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Algorithm OM(m) (oral messages), executed sequentially.
+ */
+public class AlgorithmOMm implements Algorithm {
+
+    private static final Logger LOGGER = LogManager.getLogger(AlgorithmOMm.class);
+
+    private final TreeStorage storage;
+
+    // the recursion of each thread, reused by the invocations it runs
+    private final ThreadLocal<Recursion> recursions = new ThreadLocal<>();
+
+    /**
+     * Constructs the algorithm, with the information trees on the heap.
+     */
+    public AlgorithmOMm() {
+        this(TreeStorage.HEAP);
+    }
+
+    /**
+     * Constructs the algorithm.
+     *
+     * @param storage The storage of the lieutenants' information trees.
+     */
+    public AlgorithmOMm(TreeStorage storage) {
+        this.storage = storage;
+    }
+
+    @Override
+    public void execute(General commander, List<General> lieutenants, int m) {
+        prepare(lieutenants, m);
+        General[] generals = lieutenants.toArray(new General[0]);
+        algorithmOMm(commander, generals, indexes(generals.length), generals.length, m, 0, 0);
+
+        // (3) For each i, and each j != i, let vj be the value Lieutenant i received from Lieutenant j in step (2)
+        // (using Algorithm OM(m - 1)), or else RETREAT if he received no such value. Lieutenant i uses the value
+        // majority (vl, ..., vn-1 ).
+        // Every OM(m - k) invocation is resolved at once, bottom-up on each lieutenant's information tree.
+        long start = start(commander);
+        for (General lieutenant : lieutenants) {
+            lieutenant.majorityOrder();
+        }
+        step(commander, Metrics.Step.MAJORITY, start);
+    }
+
+    /**
+     * OM(m) reaches agreement with at most 'm' traitors among more than '3m' generals [Theorem 1].
+     */
+    @Override
+    public boolean tolerates(int generals, int traitors, int m) {
+        return traitors <= m && generals > 3 * m;
+    }
+
+    /**
+     * Prepares the lieutenants' information trees for a execution of OM(m), on the storage of this algorithm.
+     */
+    void prepare(List<General> lieutenants, int m) {
+        for (General lieutenant : lieutenants) {
+            lieutenant.prepare(lieutenants.size(), m, storage);
+        }
+    }
+
+    /**
+     * @return The indexes of a number of lieutenants, in order.
+     */
+    static int[] indexes(int lieutenants) {
+        int[] indexes = new int[lieutenants];
+        for (int i = 0; i < lieutenants; i++) {
+            indexes[i] = i;
+        }
+        return indexes;
+    }
+
+    /**
+     * Recursive Algorithm OM(m), steps (1) and (2), on the recursion of the current thread.
+     * <p>Step (3) is resolved by each lieutenant on its information tree, after the recursion.
+     *
+     * @param commander Commander
+     * @param generals The lieutenants of the execution
+     * @param lieutenants The indexes of the lieutenants of this invocation in generals
+     * @param count The number of lieutenants of this invocation
+     * @param m recursive level
+     * @param level The level of the path of the order relayed by the commander
+     * @param rank The rank of the path of the order relayed by the commander
+     */
+    void algorithmOMm(General commander, General[] generals, int[] lieutenants, int count, int m, int level, int rank) {
+        Recursion recursion = recursions.get();
+        if (recursion == null || !recursion.fits(count, m)) {
+            recursion = new Recursion(count, m);
+            recursions.set(recursion);
+        }
+        try {
+            recursion.reset(generals, lieutenants, count).algorithmOMm(commander, 0, count, m, level, rank);
+        } finally {
+            recursion.release();
+        }
+    }
+
+    /**
+     * Recursion of OM(m) over the indexes of the lieutenants, allocating nothing once constructed.
+     * <p>The lieutenants of each recursion depth are kept in a scratch array, reused by every invocation of that depth:
+     * the lieutenants of OM(m - 1) for the new commander 'i' are the lieutenants of the current depth without 'i',
+     * copied in order to the next depth. Paths are passed as their level and rank, and orders are sent with the
+     * primitive {@link General#sendOrders(General[], int[], int, int, int)}, so no Path or Message is created. The
+     * lieutenants' information trees must be prepared.
+     * <p>Nothing is allocated only when the messages are not logged: with the default 'messageLogging' and the INFO
+     * level enabled, every received order boxes the parameters of its log line (see {@link General#MESSAGE_LOGGING}).
+     * <p>A recursion is sized for up to a number of lieutenants and a recursion level, and reused by the invocations
+     * fitting it (see {@link #reset(General[], int[], int)}).
+     * <p>Not thread-safe: a recursion is used by a single thread at a time.
+     */
+    static final class Recursion {
+
+        private final General[] generals;
+        private final int[][] lieutenants;
+
+        /**
+         * Constructs the recursion of the invocations of OM(k), k <= m, with up to a number of lieutenants.
+         *
+         * @param lieutenants The maximum number of lieutenants
+         * @param m The maximum recursive level
+         */
+        Recursion(int lieutenants, int m) {
+            this.generals = new General[lieutenants];
+            this.lieutenants = new int[Math.min(m, lieutenants) + 1][];
+            for (int depth = 0; depth < this.lieutenants.length; depth++) {
+                this.lieutenants[depth] = new int[lieutenants - depth];
+            }
+            for (int i = 0; i < lieutenants; i++) {
+                this.lieutenants[0][i] = i;
+            }
+        }
+
+        /**
+         * @return True if the recursion can run a invocation of OM(m) with a number of lieutenants.
+         */
+        boolean fits(int lieutenants, int m) {
+            return lieutenants <= generals.length && Math.min(m, lieutenants) < this.lieutenants.length;
+        }
+
+        /**
+         * Sets the lieutenants of the next invocation.
+         *
+         * @param generals The lieutenants of the execution
+         * @param lieutenants The indexes of the lieutenants of the invocation in generals
+         * @param count The number of lieutenants of the invocation
+         * @return This recursion.
+         */
+        Recursion reset(General[] generals, int[] lieutenants, int count) {
+            for (int i = 0; i < count; i++) {
+                this.generals[i] = generals[lieutenants[i]];
+            }
+            return this;
+        }
+
+        /**
+         * Releases the lieutenants of the last invocation.
+         */
+        void release() {
+            Arrays.fill(generals, null);
+        }
+
+        /**
+         * Recursive Algorithm OM(m), steps (1) and (2).
+         *
+         * @param commander Commander
+         * @param depth The recursion depth, whose scratch array holds the lieutenants
+         * @param count The number of lieutenants
+         * @param m recursive level
+         * @param level The level of the path of the order relayed by the commander
+         * @param rank The rank of the path of the order relayed by the commander
+         */
+        void algorithmOMm(General commander, int depth, int count, int m, int level, int rank) {
+            // OM(0)
+            if (m == 0) {
+                if (General.MESSAGE_LOGGING) {
+                    LOGGER.info("Executing m({}) for {}", m, commander);
+                }
+                // (1) The commander sends his value to every lieutenant.
+                // (2) Each lieutenant uses the value he receives from the commander, or uses the value RETREAT if he
+                // receives no value.
+                long start = start(commander);
+                commander.sendOrders(generals, lieutenants[depth], count, level, rank);
+                step(commander, Metrics.Step.SEND, start);
+                return;
+            }
+
+            // OM(m), m > 0
+            // (1) The commander sends his value to every lieutenant.
+            if (General.MESSAGE_LOGGING) {
+                LOGGER.info("Executing m({}), step 1 for {}", m, commander);
+            }
+            long start = start(commander);
+            commander.sendOrders(generals, lieutenants[depth], count, level, rank);
+            step(commander, Metrics.Step.SEND, start);
+
+            // (2) For each i, let vi be the value Lieutenant i receives from the commander, or else be RETREAT if he
+            // receives no value. Lieutenant i acts as the commander in Algorithm OM(m - 1) to send the value vi to
+            // each of the n - 2 other lieutenants.
+            if (General.MESSAGE_LOGGING) {
+                LOGGER.info("Executing m({}), step 2 for {}", m, commander);
+            }
+            start = start(commander);
+            int[] lieutenantsD = lieutenants[depth];
+            for (int i = 0; i < count; i++) {
+                int[] lieutenantsI = lieutenants[depth + 1];            // lieutenants of the new commander 'i'
+                int k = 0;
+                for (int j = 0; j < count; j++) {
+                    if (j != i) {
+                        lieutenantsI[k++] = lieutenantsD[j];
+                    }
+                }
+                algorithmOMm(generals[lieutenantsD[i]], depth + 1, count - 1, m - 1, level + 1, rank * count + i);
+            }
+            step(commander, Metrics.Step.RELAY, start);
+        }
+    }
+
+    /**
+     * @return The start time of a step, if the commander reports to metrics.
+     */
+    static long start(General commander) {
+        return commander.getMetrics() != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Reports the wall time of a step to the metrics of the commander, if any.
+     */
+    static void step(General commander, Metrics.Step step, long start) {
+        Metrics metrics = commander.getMetrics();
+        if (metrics != null) {
+            metrics.step(step, System.nanoTime() - start);
+        }
+    }
+}
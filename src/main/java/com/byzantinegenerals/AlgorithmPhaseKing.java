@@ -0,0 +1,119 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Phase-King algorithm (Berman, Garay and Perry), executed sequentially.
+ * <p>The commander sends his order to every lieutenant, which takes it as its preference. Then the lieutenants run
+ * 'm + 1' phases of two rounds each:
+ * <p>(1) Every lieutenant sends its preference to the other lieutenants and takes the majority of the received
+ * preferences and its own, counting how many of them agree with the majority.
+ * <p>(2) The king of the phase (the lieutenant 'k' in the phase 'k') sends its majority to the other lieutenants. A
+ * lieutenant keeps its majority if more than 'n / 2 + m' preferences agreed with it, or takes the king's otherwise.
+ * <p>After the last phase, every lieutenant obeys its preference. One of the 'm + 1' kings is loyal, so the loyal
+ * lieutenants agree if there are more than '4m' lieutenants and at most 'm' traitors. Each phase sends O(n^2) orders
+ * instead of the O(n^m) of OM(m), and no signatures are needed. Traitors scramble their orders as in OM(m).
+ */
+public class AlgorithmPhaseKing implements Algorithm {
+
+    private static final Logger LOGGER = LogManager.getLogger(AlgorithmPhaseKing.class);
+
+    private boolean kingRound;
+
+    @Override
+    public void execute(General commander, List<General> lieutenants, int m) {
+        // The commander sends his value to every lieutenant, its initial preference
+        if (General.MESSAGE_LOGGING) {
+            LOGGER.info("Executing Phase-King({}), commander {}", m, commander);
+        }
+        commander.sendOrders(lieutenants, Path.root(lieutenants.size()));
+
+        List<Voter> voters = new ArrayList<>(lieutenants.size());
+        for (General lieutenant : lieutenants) {
+            voters.add(new Voter(lieutenant));
+        }
+        List<List<Voter>> others = new ArrayList<>(voters.size());
+        for (Voter voter : voters) {
+            List<Voter> othersI = new ArrayList<>(voters);
+            othersI.remove(voter);
+            others.add(othersI);
+        }
+
+        int half = lieutenants.size() / 2;
+        for (int phase = 0; phase <= m && phase < voters.size(); phase++) {
+            if (General.MESSAGE_LOGGING) {
+                LOGGER.info("Executing Phase-King({}), phase {}", m, phase);
+            }
+
+            // (1) Every lieutenant sends its preference
+            kingRound = false;
+            for (Voter voter : voters) {
+                voter.attacks = Order.ATTACK.equals(voter.general.getOrder()) ? 1 : 0;
+            }
+            for (int i = 0; i < voters.size(); i++) {
+                voters.get(i).general.sendOrders(others.get(i), Path.root(voters.size()));
+            }
+            for (Voter voter : voters) {
+                voter.majority = voter.attacks > half ? Order.ATTACK : Order.RETREAT;
+                voter.multiplicity = Order.ATTACK.equals(voter.majority) ? voter.attacks : voters.size() - voter.attacks;
+            }
+
+            // (2) The king sends its majority
+            kingRound = true;
+            Voter king = voters.get(phase);
+            king.general.setOrder(king.majority);
+            king.general.sendOrders(others.get(phase), Path.root(voters.size()));
+            for (Voter voter : voters) {
+                if (voter != king) {
+                    voter.general.setOrder(voter.multiplicity > half + m ? voter.majority : voter.king);
+                }
+            }
+        }
+
+        // Every lieutenant obeys its preference
+        if (General.MESSAGE_LOGGING) {
+            for (General lieutenant : lieutenants) {
+                LOGGER.info("{} decided {}", lieutenant.getName(), lieutenant.getOrder());
+            }
+        }
+    }
+
+    /**
+     * Collects the orders sent to a lieutenant in a round.
+     */
+    private class Voter implements Receiver {
+
+        private final General general;
+        private int attacks;
+        private Order majority;
+        private int multiplicity;
+        private Order king;
+
+        Voter(General general) {
+            this.general = general;
+        }
+
+        @Override
+        public int getId() {
+            return general.getId();
+        }
+
+        @Override
+        public String getName() {
+            return general.getName();
+        }
+
+        @Override
+        public void receiveOrder(Message message) {
+            if (kingRound) {
+                king = message.getOrder();
+            } else if (Order.ATTACK.equals(message.getOrder())) {
+                attacks++;
+            }
+        }
+    }
+}
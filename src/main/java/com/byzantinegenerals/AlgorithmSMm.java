@@ -0,0 +1,175 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+/**
+ * Algorithm SM(m) (signed messages), executed sequentially.
+ * <p>Every relay signs the message, and the signatures are verified by the receiver (see {@link Signer}), so a
+ * traitor can only relay the orders it received or not relay them at all: a altered order is rejected. Each
+ * lieutenant relays each order at most once, so at most (n - 1) + 2 * (n - 1) * (n - 2) messages are sent, instead
+ * of the O(n^m) messages of OM(m). SM(m) copes with any number of traitors up to 'm'.
+ * <p>Generals are identified by their position: 0 for the commander and 'i + 1' for the lieutenant 'i'.
+ * <p>Not thread-safe.
+ */
+public class AlgorithmSMm implements Algorithm {
+
+    private static final Logger LOGGER = LogManager.getLogger(AlgorithmSMm.class);
+
+    private static final int COMMANDER = 0;
+
+    private Signer signer;
+    private long messages;
+    private long rejected;
+
+    /**
+     * Constructs the algorithm, creating new keys whenever there are more generals than keys.
+     */
+    public AlgorithmSMm() {
+    }
+
+    /**
+     * Constructs the algorithm.
+     *
+     * @param signer The signer of the messages, with a key for every general.
+     */
+    public AlgorithmSMm(Signer signer) {
+        this.signer = signer;
+    }
+
+    @Override
+    public void execute(General commander, List<General> lieutenants, int m) {
+        if (signer == null || signer.size() <= lieutenants.size()) {
+            signer = new Signer(lieutenants.size() + 1);
+        }
+        List<Lieutenant> receivers = new ArrayList<>(lieutenants.size());
+        for (int i = 0; i < lieutenants.size(); i++) {
+            receivers.add(new Lieutenant(lieutenants.get(i), i + 1, m));
+        }
+
+        // (1) The commander signs and sends his value to every lieutenant.
+        if (General.MESSAGE_LOGGING) {
+            LOGGER.info("Executing SM({}), step 1 for {}", m, commander);
+        }
+        for (int i = 0; i < receivers.size(); i++) {
+            Order order = commander.scrambleOrder(commander.getOrder(), i + 1, receivers.size(), 0, 0);
+            receivers.get(i).receiveOrder(new Message(order, commander, signer.sign(COMMANDER, order)));
+        }
+
+        // (2) If Lieutenant i receives a message of the form v:0:j1:...:jk and v is not in the set Vi, then he adds v
+        // to Vi and, if k < m, he sends the message v:0:j1:...:jk:i to every lieutenant other than j1, ..., jk.
+        if (General.MESSAGE_LOGGING) {
+            LOGGER.info("Executing SM({}), step 2 for {}", m, commander);
+        }
+        boolean relayed = true;
+        while (relayed) {
+            relayed = false;
+            for (Lieutenant lieutenant : receivers) {
+                for (Message message = lieutenant.relays.poll(); message != null; message = lieutenant.relays.poll()) {
+                    relay(lieutenant, message, receivers);
+                    relayed = true;
+                }
+            }
+        }
+
+        // (3) When Lieutenant i will receive no more messages, he obeys the order choice(Vi).
+        for (Lieutenant lieutenant : receivers) {
+            lieutenant.general.setOrder(lieutenant.choice());
+        }
+        if (General.MESSAGE_LOGGING) {
+            LOGGER.info("SM({}): {} messages, {} rejected", m, messages, rejected);
+        }
+    }
+
+    /**
+     * Countersigns a received message and sends it to the lieutenants that did not sign it.
+     */
+    private void relay(Lieutenant sender, Message message, List<Lieutenant> receivers) {
+        SignatureChain signatures = signer.countersign(message.getSignatures(), sender.index);
+        int level = message.getSignatures().size();
+        int count = receivers.size() - level;   // neither the sender nor the signers but the commander
+        int index = 1;
+        for (Lieutenant receiver : receivers) {
+            if (receiver != sender && !message.getSignatures().isSignedBy(receiver.index)) {
+                Order order = sender.general.scrambleOrder(message.getOrder(), index++, count, level, 0);
+                receiver.receiveOrder(new Message(order, sender.general, signatures));
+            }
+        }
+    }
+
+    /**
+     * @return The number of messages sent.
+     */
+    public long getMessages() {
+        return messages;
+    }
+
+    /**
+     * @return The number of messages rejected by the receivers, as their signatures did not match the order.
+     */
+    public long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * A lieutenant and the set Vi of orders it received.
+     */
+    private class Lieutenant implements Receiver {
+
+        private final General general;
+        private final int index;
+        private final int m;
+        private final Set<Order> values = EnumSet.noneOf(Order.class);
+        private final Queue<Message> relays = new ArrayDeque<>();
+
+        Lieutenant(General general, int index, int m) {
+            this.general = general;
+            this.index = index;
+            this.m = m;
+        }
+
+        @Override
+        public int getId() {
+            return index;
+        }
+
+        @Override
+        public String getName() {
+            return general.getName();
+        }
+
+        @Override
+        public void receiveOrder(Message message) {
+            messages++;
+            SignatureChain signatures = message.getSignatures();
+            if (!signer.verify(message.getOrder(), signatures) || signatures.getSigner(0) != COMMANDER ||
+                    signatures.isSignedBy(index)) {
+                rejected++;
+                if (General.MESSAGE_LOGGING) {
+                    LOGGER.info("{} rejected {}", general.getName(), message);
+                }
+                return;
+            }
+            if (General.MESSAGE_LOGGING) {
+                LOGGER.info("{} received {}", general.getName(), message);
+            }
+            if (values.add(message.getOrder()) && signatures.size() <= m) {
+                relays.add(message);
+            }
+        }
+
+        /**
+         * @return The single order received, or RETREAT if none or both orders were received.
+         */
+        Order choice() {
+            return values.size() == 1 ? values.iterator().next() : Order.RETREAT;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Algorithm OM(m), executed by actors exchanging batches of messages in rounds.
+ * <p>Each lieutenant is a actor owning a lock-free mailbox. In round 'k', every actor receives the orders relayed in
+ * round 'k - 1' (the paths of level 'k - 1') and relays each one to the other lieutenants of its path, as one batch
+ * of messages per receiver. Rounds are separated by a barrier, and the mailboxes are double-buffered so a round's
+ * batches are never received before the next round. After round 'm', every actor decides its order.
+ * <p>The lieutenants receive the same messages as in the recursive OM(m), so they decide the same orders.
+ */
+public class AsyncAlgorithmOMm implements Algorithm {
+
+    private static final Logger LOGGER = LogManager.getLogger(AsyncAlgorithmOMm.class);
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructs the algorithm with actors running on the common pool.
+     */
+    public AsyncAlgorithmOMm() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs the algorithm.
+     *
+     * @param executor The executor running the actors.
+     */
+    public AsyncAlgorithmOMm(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public void execute(General commander, List<General> lieutenants, int m) {
+        for (General lieutenant : lieutenants) {
+            lieutenant.prepare(lieutenants.size(), m);
+        }
+
+        Map<General, Actor> actors = new IdentityHashMap<>();
+        List<Actor> actorList = new ArrayList<>(lieutenants.size());
+        for (General lieutenant : lieutenants) {
+            Actor actor = new Actor(lieutenant, lieutenants, actors);
+            actors.put(lieutenant, actor);
+            actorList.add(actor);
+        }
+
+        // (1) The commander sends his value to every lieutenant, received in round 0
+        List<Outbox> outboxes = new ArrayList<>(lieutenants.size());
+        for (General lieutenant : lieutenants) {
+            outboxes.add(new Outbox(actors.get(lieutenant)));
+        }
+        commander.sendOrders(outboxes, Path.root(lieutenants.size()));
+        for (Outbox outbox : outboxes) {
+            outbox.flush(0);
+        }
+
+        // (2) Rounds 0..m, each lieutenant relays the orders received in the round
+        for (int round = 0; round <= m; round++) {
+            if (General.MESSAGE_LOGGING) {
+                LOGGER.info("Executing round {} of m({})", round, m);
+            }
+            int roundI = round;
+            invokeAll(actorList, actor -> () -> {
+                actor.round(roundI, roundI < m);
+                return null;
+            });
+        }
+
+        // (3) Every lieutenant uses the majority of the received orders
+        invokeAll(actorList, actor -> actor.lieutenant::majorityOrder);
+    }
+
+    /**
+     * OM(m) reaches agreement with at most 'm' traitors among more than '3m' generals [Theorem 1].
+     */
+    @Override
+    public boolean tolerates(int generals, int traitors, int m) {
+        return traitors <= m && generals > 3 * m;
+    }
+
+    /**
+     * Runs a task for each actor and waits for all of them (the round barrier).
+     */
+    private void invokeAll(List<Actor> actors, Function<Actor, Callable<?>> task) {
+        List<Callable<Object>> tasks = new ArrayList<>(actors.size());
+        for (Actor actor : actors) {
+            Callable<?> callable = task.apply(actor);
+            tasks.add(callable::call);
+        }
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the round", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Actor failed", e.getCause());
+        }
+    }
+
+    /**
+     * A lieutenant and its mailbox.
+     */
+    private static class Actor {
+
+        private final General lieutenant;
+        private final List<General> lieutenants;
+        private final Map<General, Actor> actors;
+
+        // batches of messages for even and odd rounds
+        private final List<Queue<List<Message>>> mailbox = Arrays.asList(new ConcurrentLinkedQueue<>(), new ConcurrentLinkedQueue<>());
+
+        Actor(General lieutenant, List<General> lieutenants, Map<General, Actor> actors) {
+            this.lieutenant = lieutenant;
+            this.lieutenants = lieutenants;
+            this.actors = actors;
+        }
+
+        /**
+         * Receives the batches of a round and, if relay is true, relays every received order to the other lieutenants
+         * of its path, for the next round.
+         */
+        void round(int round, boolean relay) {
+            List<Path> received = new ArrayList<>();
+            Queue<List<Message>> batches = mailbox.get(round % 2);
+            for (List<Message> batch = batches.poll(); batch != null; batch = batches.poll()) {
+                for (Message message : batch) {
+                    lieutenant.receiveOrder(message);
+                    received.add(message.getPath());
+                }
+            }
+            if (!relay) {
+                return;
+            }
+
+            Map<General, Outbox> outboxes = new IdentityHashMap<>();
+            for (Path path : received) {
+                // Lieutenant i acts as the commander in Algorithm OM(m - k) for the path
+                List<General> lieutenantsI = path.lieutenants(lieutenants);
+                Path pathI = path.child(lieutenantsI.indexOf(lieutenant));
+                lieutenantsI.remove(lieutenant);
+                List<Outbox> receivers = new ArrayList<>(lieutenantsI.size());
+                for (General receiver : lieutenantsI) {
+                    receivers.add(outboxes.computeIfAbsent(receiver, r -> new Outbox(actors.get(r))));
+                }
+                lieutenant.sendOrders(receivers, pathI);
+            }
+            for (Outbox outbox : outboxes.values()) {
+                outbox.flush(round + 1);
+            }
+        }
+    }
+
+    /**
+     * Collects the messages sent to a actor in a round, delivered to its mailbox as a single batch.
+     */
+    private static class Outbox implements Receiver {
+
+        private final Actor receiver;
+        private final List<Message> batch = new ArrayList<>();
+
+        Outbox(Actor receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public int getId() {
+            return receiver.lieutenant.getId();
+        }
+
+        @Override
+        public String getName() {
+            return receiver.lieutenant.getName();
+        }
+
+        @Override
+        public void receiveOrder(Message message) {
+            batch.add(message);
+        }
+
+        void flush(int round) {
+            if (!batch.isEmpty()) {
+                receiver.mailbox.get(round % 2).offer(new ArrayList<>(batch));
+                batch.clear();
+            }
+        }
+    }
+}
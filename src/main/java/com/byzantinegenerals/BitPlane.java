@@ -0,0 +1,24 @@
+package com.byzantinegenerals;
+
+/**
+ * A array of bits indexed by path rank, stored as 64-bit words: one plane of a level of a information tree.
+ * <p>Words are updated atomically, so disjoint bits of a word can be set concurrently.
+ */
+public interface BitPlane {
+
+    /**
+     * @param word The word index.
+     * @return The word.
+     */
+    long get(int word);
+
+    /**
+     * Sets the bits of a mask on a word.
+     */
+    void or(int word, long mask);
+
+    /**
+     * Keeps only the bits of a mask on a word.
+     */
+    void and(int word, long mask);
+}
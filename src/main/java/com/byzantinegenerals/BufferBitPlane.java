@@ -0,0 +1,55 @@
+package com.byzantinegenerals;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bit plane on a direct or memory-mapped buffer, outside of the heap.
+ * <p>Buffers have no compare-and-set in Java 8, so updates lock one of a set of shared stripes, chosen by plane and
+ * word. Reads do not lock: a bit is only read by the thread that set it, or after the threads setting it were joined.
+ */
+class BufferBitPlane implements BitPlane {
+
+    private static final int STRIPES = 64;
+    private static final Object[] LOCKS = new Object[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private final ByteBuffer buffer;
+    private final int hash = System.identityHashCode(this);
+
+    /**
+     * Constructs the plane.
+     *
+     * @param buffer The buffer of the words, zeroed, with a capacity of 8 bytes per word.
+     */
+    BufferBitPlane(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    private Object lock(int word) {
+        return LOCKS[(word ^ hash) & (STRIPES - 1)];
+    }
+
+    @Override
+    public long get(int word) {
+        return buffer.getLong(word << 3);
+    }
+
+    @Override
+    public void or(int word, long mask) {
+        synchronized (lock(word)) {
+            buffer.putLong(word << 3, buffer.getLong(word << 3) | mask);
+        }
+    }
+
+    @Override
+    public void and(int word, long mask) {
+        synchronized (lock(word)) {
+            buffer.putLong(word << 3, buffer.getLong(word << 3) & mask);
+        }
+    }
+}
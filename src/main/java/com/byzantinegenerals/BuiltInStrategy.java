@@ -0,0 +1,61 @@
+package com.byzantinegenerals;
+
+/**
+ * The strategies of {@link TraitorStrategy} that only depend on the index of the receiver, computed 64 receivers at a
+ * time.
+ */
+enum BuiltInStrategy implements TraitorStrategy {
+
+    ODD_INDEX {
+        @Override
+        public Order order(Order order, int index, int count, int level, int rank) {
+            return index % 2 != 0 ? opposite(order) : order;
+        }
+
+        @Override
+        public long orders(Order order, int index, int count, int level, int rank) {
+            return broadcast(order) ^ (index % 2 != 0 ? 0x5555555555555555L : 0xAAAAAAAAAAAAAAAAL);   // odd indexes are inverted
+        }
+    },
+
+    ALWAYS_OPPOSITE {
+        @Override
+        public Order order(Order order, int index, int count, int level, int rank) {
+            return opposite(order);
+        }
+
+        @Override
+        public long orders(Order order, int index, int count, int level, int rank) {
+            return ~broadcast(order);
+        }
+
+        @Override
+        public boolean isIndexSensitive() {
+            return false;
+        }
+    },
+
+    SPLIT_VOTE {
+        @Override
+        public Order order(Order order, int index, int count, int level, int rank) {
+            return index <= (count + 1) / 2 ? Order.ATTACK : Order.RETREAT;
+        }
+
+        @Override
+        public long orders(Order order, int index, int count, int level, int rank) {
+            int attacks = (count + 1) / 2 - index + 1;  // receivers of the first half, from index on
+            if (attacks <= 0) {
+                return 0;
+            }
+            return attacks >= Long.SIZE ? -1L : (1L << attacks) - 1;
+        }
+    };
+
+    static Order opposite(Order order) {
+        return Order.ATTACK.equals(order) ? Order.RETREAT : Order.ATTACK;
+    }
+
+    static long broadcast(Order order) {
+        return Order.ATTACK.equals(order) ? -1L : 0L;
+    }
+}
@@ -1,12 +1,24 @@
 package com.byzantinegenerals;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
 
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 /**
  * Main class of the Byzantine Generals problem (algorithm).
@@ -18,11 +30,17 @@ public class ByzantineGenerals {
     private final List<General> generals;
     private final Order commanderOrder;
     private final int recursionLevel;
+    private final Algorithm algorithm;
 
     public ByzantineGenerals(List<General> generals, Order commanderOrder, int recursionLevel) {
+        this(generals, commanderOrder, recursionLevel, new AlgorithmOMm());
+    }
+
+    public ByzantineGenerals(List<General> generals, Order commanderOrder, int recursionLevel, Algorithm algorithm) {
         this.generals = generals;
         this.commanderOrder = commanderOrder;
         this.recursionLevel = recursionLevel;
+        this.algorithm = algorithm;
     }
 
     // Utilized on unit tests
@@ -39,7 +57,14 @@ public class ByzantineGenerals {
         commander.setOrder(commanderOrder);
 
         // call the algorithm (generals lists goes without the commander)
-        algorithmOMm(commander, generals.subList(1, generals.size()), recursionLevel);
+        Metrics metrics = commander.getMetrics();
+        long start = metrics != null ? System.nanoTime() : 0;
+        long allocatedBytes = metrics != null ? Metrics.threadAllocatedBytes() : 0;
+        algorithm.execute(commander, generals.subList(1, generals.size()), recursionLevel);
+        if (metrics != null) {
+            metrics.execution(System.nanoTime() - start, Metrics.threadAllocatedBytes() - allocatedBytes);
+            LOGGER.info("Metrics {}", metrics.getSnapshot());
+        }
 
         // show the final results
         boolean result = executeOrders();
@@ -48,94 +73,462 @@ public class ByzantineGenerals {
     }
 
     /**
-     * Recursive Algorithm OM(m)
+     * Execute the generals orders returning if the mission was accomplished.
+     * <p>The mission is considered accomplished when all generals execute the same order.
      *
-     * @param commander Commander
-     * @param lieutenants List of Lieutenants
-     * @param m recursive level
-     */
-    void algorithmOMm(General commander, List<General> lieutenants, int m) {
-        // OM(0)
-        if (m == 0) {
-            LOGGER.info("Executing m({}) for {}", m, commander);
-            // (1) The commander sends his value to every lieutenant.
-            // (2) Each lieutenant uses the value he receives from the commander, or uses the value RETREAT if he
-            // receives no value.
-            for (int i = 0; i < lieutenants.size(); i++) {
-                commander.sendOrder(lieutenants.get(i), i+1);
+     * @return true if the mission was accomplished, or false if it failed.
+     */
+    boolean executeOrders() {
+        LOGGER.info("Executing orders...");
+
+        int attacks = 0;
+        for (General general : generals) {
+            if (Order.ATTACK.equals(general.executeOrder())) {
+                attacks++;
             }
-            return;
         }
 
-        // OM(m), m > 0
-        // (1) The commander sends his value to every lieutenant.
-        LOGGER.info("Executing m({}), step 1 for {}", m, commander);
-        for (int i = 0; i < lieutenants.size(); i++) {
-            commander.sendOrder(lieutenants.get(i), i+1);
-        }
+        return attacks > generals.size() / 2 || generals.size() - attacks > generals.size() / 2;
+    }
 
-        // (2) For each i, let vi be the value Lieutenant i receives from the commander, or else be RETREAT if he
-        // receives no value. Lieutenant i acts as the commander in Algorithm OM(m - 1) to send the value vi to each
-        // of the n - 2 other lieutenants.
-        LOGGER.info("Executing m({}), step 2 for {}", m, commander);
-        int mI = m - 1;                                                 // execute the algorithm for (m - 1)
-        for (int i = 0; i < lieutenants.size(); i++) {
-            General commanderI = lieutenants.get(i);                    // new commander 'i'
-            List<General> lieutenantsI = lieutenants.stream()           // new lieutenants list,
-                    .filter(general -> !general.equals(commanderI))     // without the new commander
-                    .collect(Collectors.toList());
-            algorithmOMm(commanderI, lieutenantsI, mI);
+    /**
+     * Gets the order executed by more than half of the generals.
+     *
+     * @return The decided order, or null if no order has a majority.
+     */
+    Order getDecision() {
+        int attacks = 0;
+        for (General general : generals) {
+            if (Order.ATTACK.equals(general.getOrder())) {
+                attacks++;
+            }
         }
-
-        // (3) For each i, and each j != i, let vj be the value Lieutenant i received from Lieutenant j in step (2)
-        // (using Algorithm OM(m - 1)), or else RETREAT if he received no such value. Lieutenant i uses the value
-        // majority (vl, ..., vn-1 ).
-        LOGGER.info("Executing m({}), step 3 for {}", m, commander);
-        for (int i = 0; i < lieutenants.size(); i++) {
-            lieutenants.get(i).majorityOrder();
+        if (attacks > generals.size() / 2) {
+            return Order.ATTACK;
         }
+        return generals.size() - attacks > generals.size() / 2 ? Order.RETREAT : null;
     }
 
     /**
-     * Execute the generals orders returning if the mission was accomplished.
-     * <p>The mission is considered accomplished when all generals execute the same order.
+     * Checks the interactive consistency conditions over the orders of the loyal generals:
+     * <p>IC1. All loyal lieutenants obey the same order.
+     * <p>IC2. If the commander is loyal, then every loyal lieutenant obeys the order he sends.
      *
-     * @return true if the mission was accomplished, or false if it failed.
+     * @param generals The generals after the algorithm, the first one being the commander.
+     * @param commanderOrder The order of the commander.
+     * @return "IC1" or "IC2", the first condition violated, or null if both hold.
      */
-    boolean executeOrders() {
-        LOGGER.info("Executing orders...");
-
-        Map<Order, Long> orderCounter = generals.stream()
-                .map(General::executeOrder).collect(Collectors.groupingBy(s -> s, Collectors.counting()));
-
-        return orderCounter.getOrDefault(Order.ATTACK, 0L) > generals.size() / 2 ||
-                orderCounter.getOrDefault(Order.RETREAT, 0L) > generals.size() / 2;
+    static String violatedCondition(List<General> generals, Order commanderOrder) {
+        Order decided = null;
+        for (int i = 1; i < generals.size(); i++) {
+            General lieutenant = generals.get(i);
+            if (lieutenant.isLoyal()) {
+                if (decided != null && decided != lieutenant.getOrder()) {
+                    return "IC1";
+                }
+                decided = lieutenant.getOrder();
+            }
+        }
+        return generals.get(0).isLoyal() && decided != null && decided != commanderOrder ? "IC2" : null;
     }
 
     /**
      * Main method
      *
-     * @param args 'm' 'g1,g2,g3,...,gn' 'o', where:
+     * @param args [--algorithm 'a'] [--trials 'N' [--seed 's']] [--instances 'I' [--depth 'd'] [--seed 's']] [--verify 'p']
+     *             [--adversary 'p' [--traitors 'k'] [--seed 's'] [--candidates 'c']] [--storage 't'] [--strategy 'st'] [--trace 'file'] [--metrics 'json'] 'm' 'g1,g2,g3,...,gn' 'o', or
+     *             --serve 'port' [--workers 'w'] to serve consensus jobs over HTTP (see ConsensusServer), or --sweep 'grid'
+     *             [--output 'file'] [--threads 'p'] to run OM(m) for every cell of a grid (see Sweep), where:
+     *             <p>'a' is the algorithm executed by the generals (see {@link #algorithm(String)}), or auto (default) to
+     *             let the {@link ExecutionPlanner} choose the algorithm and storage, failing if n <= 3m
+     *             <p>'N' is the number of trials to run in batch mode, with randomly selected traitors
+     *             <p>'s' is the seed of the batch, or of the traitors of the instances or of the adversary search
+     *             (default 0)
+     *             <p>'I' is the number of consensus instances to run in pipeline, over the same generals
+     *             <p>'d' is the number of instances running at once (default the number of processors)
+     *             <p>'p' is the number of threads verifying every placement of up to 'm' traitors (see PlacementVerifier),
+     *             or searching every assignment of the candidates to the traitors (see ExhaustiveAdversarySearch)
+     *             <p>'k' is the number of traitors of the adversary search, selected from the seed (default 'm')
+     *             <p>'c' is the list of candidate strategies, separated by comma ',' (default odd,opposite,split)
+     *             <p>'t' is the storage of the information trees of OM(m) (see {@link #storage(String)}, default heap)
+     *             <p>'st' is the strategy of the traitors (see {@link TraitorStrategy#valueOf(String)}, default odd)
+     *             <p>'file' is the file recording the messages received by the generals (see TraceDecoder)
+     *             <p>'json' is the file receiving the metrics of the execution, also registered on JMX while it runs
      *             <p>'m' is a Integer representing the level of recursion, assuming that m > 0
      *             <p>'g1,g2,g3,...,gn' is a String representing the list of general names, separated by comma ','
-     *             <p>'o' is a String representing the commander order, that could be ATTACK or RETREAT
+     *             <p>'o' is a String representing the commander order, that could be ATTACK or RETREAT, or one order
+     *             per general separated by comma ',' to agree on all of them (see InteractiveConsistency)
+     *             <p>'w' is the number of threads running the jobs of the server (default the number of processors)
+     *             <p>'grid' is the grid of the sweep, e.g. n=4..13;m=1..3;order=ATTACK,RETREAT;seed=0..9
+     *             <p>'file' is also the file of the sweep rows, CSV if it ends in .csv, or binary (default sweep.bin)
      *
      */
-    public static void main(String[] args) {
-        if (args.length != 3) {
-            System.err.println("Execution:\n java -jar ByzantineGenerals <m> <g1,g2,g3,...,gn> <o>\nwhere:");
+    public static void main(String[] args) throws IOException {
+        Map<String, String> options = new HashMap<>();
+        List<String> arguments = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--") && i + 1 < args.length) {
+                options.put(args[i].substring(2), args[++i]);
+            } else {
+                arguments.add(args[i]);
+            }
+        }
+
+        if (options.containsKey("serve")) {
+            serve(Integer.parseInt(options.get("serve")),
+                    Integer.parseInt(options.getOrDefault("workers", String.valueOf(Runtime.getRuntime().availableProcessors()))));
+            return;
+        }
+        if (options.containsKey("sweep")) {
+            String algorithmName = options.getOrDefault("algorithm", "om");
+            runSweep(new Sweep(options.get("sweep"), algorithm("auto".equals(algorithmName) ? "om" : algorithmName),
+                            TraitorStrategy.valueOf(options.getOrDefault("strategy", "odd"))),
+                    new File(options.getOrDefault("output", "sweep.bin")),
+                    Integer.parseInt(options.getOrDefault("threads", String.valueOf(Runtime.getRuntime().availableProcessors()))));
+            return;
+        }
+
+        if (arguments.size() != 3) {
+            System.err.println("Execution:\n java -jar ByzantineGenerals [--algorithm <a>] [--trials <N> [--seed <s>]] [--instances <I> [--depth <d>] [--seed <s>]] [--verify <p>] [--adversary <p> [--traitors <k>] [--seed <s>] [--candidates <c>]] [--storage <t>] [--strategy <st>] [--trace <file>] [--metrics <json>] <m> <g1,g2,g3,...,gn> <o>\nwhere:");
+            System.err.println(" <a> is the algorithm: auto (planned from n and m, default), om (oral messages), parallel, memoized, async, sim (simulated network), sm (signed messages) or king (Phase-King)");
+            System.err.println(" <N> is the number of trials to run in batch mode, with randomly selected traitors");
+            System.err.println(" <s> is the seed of the batch, or of the traitors of the instances or of the adversary search (default 0)");
+            System.err.println(" <I> is the number of consensus instances to run in pipeline, over the same generals");
+            System.err.println(" <d> is the number of instances running at once (default the number of processors)");
+            System.err.println(" <p> is the number of threads verifying every placement of up to <m> traitors, or searching every assignment of the candidates to the traitors");
+            System.err.println(" <k> is the number of traitors of the adversary search (default <m>)");
+            System.err.println(" <c> is the list of candidate strategies of the adversary search, separated by comma ',' (default odd,opposite,split)");
+            System.err.println(" <t> is the storage of the information trees of OM(m): heap (default), offheap or mapped (a temporary file)");
+            System.err.println(" <st> is the strategy of the traitors: odd (inverts odd indexes, default), opposite, split or random:<seed>");
+            System.err.println(" <file> is the file recording the messages received by the generals");
+            System.err.println(" <json> is the file receiving the metrics of the execution");
             System.err.println(" <m> is a Integer representing the level of recursion, assuming that m > 0");
             System.err.println(" <g1,g2,g3,...,gn> is a String representing the list of general names, separated by comma ','");
-            System.err.println(" <o> is a String representing the commander order, that could be ATTACK or RETREAT");
+            System.err.println(" <o> is a String representing the commander order, that could be ATTACK or RETREAT, or one order per general separated by comma ',' to agree on all of them (interactive consistency)");
+            System.err.println("or, to serve consensus jobs over HTTP on localhost (see ConsensusServer):\n java -jar ByzantineGenerals --serve <port> [--workers <w>]");
+            System.err.println("or, to run OM(m) over a grid, e.g. n=4..13;m=1..3;order=ATTACK,RETREAT;seed=0..9 (see Sweep):\n java -jar ByzantineGenerals --sweep <grid> [--output <file>] [--threads <p>] [--algorithm <a>] [--strategy <st>]");
             System.exit(1);
         }
 
-        ByzantineGenerals byzantineGenerals = new Builder(args[1])
-                .setCommanderOrder(args[2])
-                .setRecursionLevel(args[0])
-                .build();
+        if (arguments.get(2).contains(",")) {
+            runInteractive(arguments, TraitorStrategy.valueOf(options.getOrDefault("strategy", "odd")),
+                    options.containsKey("seed") ? Long.parseLong(options.get("seed")) : null);
+            return;
+        }
+
+        String algorithmName = options.getOrDefault("algorithm", "auto");
+        String storageName = options.getOrDefault("storage", "heap");
+        if (options.containsKey("instances") && !"auto".equals(algorithmName) && !"om".equals(algorithmName)) {
+            throw new IllegalArgumentException("The pipeline runs the rounds of OM(m) itself, not " + algorithmName);
+        }
+        if ("auto".equals(algorithmName)) {
+            if (options.containsKey("trials") || options.containsKey("verify") || options.containsKey("adversary")) {
+                algorithmName = "om";   // all explore configurations OM(m) may not tolerate
+            } else if (options.containsKey("instances")) {
+                algorithmName = "om";   // the pipeline runs its own rounds
+            } else {
+                // the memoized engine does not send messages, so nothing is logged, traced or measured
+                boolean memoizable = !General.MESSAGE_LOGGING && !options.containsKey("trace") &&
+                        !options.containsKey("metrics") &&
+                        !TraitorStrategy.valueOf(options.getOrDefault("strategy", "odd")).isPathSensitive();
+                ExecutionPlanner.Plan plan = new ExecutionPlanner().plan(arguments.get(1).split(",").length,
+                        Integer.parseInt(arguments.get(0)), memoizable);
+                System.out.println(plan);
+                algorithmName = plan.getAlgorithm();
+                storageName = options.getOrDefault("storage", plan.getStorage());
+            }
+        }
+
+        TreeStorage storage = storage(storageName);
+        try {
+            execute(arguments, options, algorithm(algorithmName, storage));
+        } finally {
+            if (storage instanceof Closeable) {
+                ((Closeable) storage).close();
+            }
+        }
+    }
+
+    /**
+     * Executes the mode selected by the options.
+     */
+    private static void execute(List<String> arguments, Map<String, String> options, Supplier<Algorithm> algorithm) throws IOException {
+        if (options.containsKey("trials")) {
+            runTrials(arguments, algorithm, Long.parseLong(options.get("trials")), Long.parseLong(options.getOrDefault("seed", "0")));
+            return;
+        }
+        if (options.containsKey("instances")) {
+            runInstances(arguments, Long.parseLong(options.get("instances")),
+                    Integer.parseInt(options.getOrDefault("depth", String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                    Long.parseLong(options.getOrDefault("seed", "0")), TraitorStrategy.valueOf(options.getOrDefault("strategy", "odd")));
+            return;
+        }
+        if (options.containsKey("verify")) {
+            runVerification(arguments, algorithm, Integer.parseInt(options.get("verify")),
+                    TraitorStrategy.valueOf(options.getOrDefault("strategy", "odd")), !"king".equals(options.get("algorithm")));
+            return;
+        }
+        if (options.containsKey("adversary")) {
+            runAdversarySearch(arguments, algorithm, Integer.parseInt(options.get("adversary")),
+                    Integer.parseInt(options.getOrDefault("traitors", arguments.get(0))), Long.parseLong(options.getOrDefault("seed", "0")),
+                    Arrays.asList(options.getOrDefault("candidates", "odd,opposite,split").split(",")));
+            return;
+        }
+
+        TraceRecorder recorder = options.containsKey("trace") ? new TraceRecorder(new File(options.get("trace"))) : null;
+        Metrics metrics = null;
+        if (options.containsKey("metrics")) {
+            metrics = new Metrics(arguments.get(1).split(",").length, Integer.parseInt(arguments.get(0)) + 1);
+            metrics.register();
+        }
+        try {
+            ByzantineGenerals byzantineGenerals = new Builder(arguments.get(1))
+                    .setCommanderOrder(arguments.get(2))
+                    .setRecursionLevel(arguments.get(0))
+                    .setAlgorithm(algorithm.get())
+                    .setStrategy(TraitorStrategy.valueOf(options.getOrDefault("strategy", "odd")))
+                    .setRecorder(recorder)
+                    .setMetrics(metrics)
+                    .build();
+
+            byzantineGenerals.executeAlgorithmOMm();
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+            }
+            if (metrics != null) {
+                metrics.unregister();
+                Files.write(Paths.get(options.get("metrics")), metrics.getSnapshot().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
 
-        byzantineGenerals.executeAlgorithmOMm();
+    /**
+     * Gets the algorithm executed by the generals.
+     *
+     * @param name om (oral messages), parallel, memoized or async (OM(m) engines), sim (OM(m) on a simulated network),
+     *             sm (signed messages) or king (Phase-King)
+     * @return A supplier of new instances of the algorithm.
+     * @throws IllegalArgumentException If the algorithm is unknown.
+     */
+    static Supplier<Algorithm> algorithm(String name) {
+        return algorithm(name, TreeStorage.HEAP);
+    }
+
+    /**
+     * Gets the algorithm executed by the generals, with the information trees of OM(m) on a storage.
+     *
+     * @see #algorithm(String)
+     */
+    static Supplier<Algorithm> algorithm(String name, TreeStorage storage) {
+        switch (name) {
+            case "om":
+                return () -> new AlgorithmOMm(storage);
+            case "parallel":
+                return () -> new ParallelAlgorithmOMm(ForkJoinPool.commonPool(), 1, 4, storage);
+            case "memoized":
+                return MemoizedAlgorithmOMm::new;
+            case "async":
+                return AsyncAlgorithmOMm::new;
+            case "sim":
+                return SimulatedAlgorithmOMm::new;
+            case "sm":
+                return AlgorithmSMm::new;
+            case "king":
+                return AlgorithmPhaseKing::new;
+            default:
+                throw new IllegalArgumentException("Unknown algorithm: " + name);
+        }
+    }
+
+    /**
+     * Gets the storage of the information trees of OM(m).
+     *
+     * @param name heap, offheap (direct buffers) or mapped (a temporary memory-mapped file)
+     * @return The storage.
+     * @throws IllegalArgumentException If the storage is unknown.
+     * @throws IOException If the temporary file cannot be created.
+     */
+    static TreeStorage storage(String name) throws IOException {
+        switch (name) {
+            case "heap":
+                return TreeStorage.HEAP;
+            case "offheap":
+                return TreeStorage.OFF_HEAP;
+            case "mapped":
+                return new MappedTreeStorage(null);
+            default:
+                throw new IllegalArgumentException("Unknown storage: " + name);
+        }
+    }
+
+    /**
+     * Runs the batch mode, logging only warnings while the trials run.
+     */
+    private static void runTrials(List<String> arguments, Supplier<Algorithm> algorithm, long trials, long seed) {
+        Configurator.setLevel(ByzantineGenerals.class.getPackage().getName(), Level.WARN);
+
+        MonteCarlo monteCarlo = new MonteCarlo(Arrays.asList(arguments.get(1).split(",")),
+                Order.valueOf(arguments.get(2)), Integer.parseInt(arguments.get(0)), algorithm);
+        long start = System.nanoTime();
+        TrialStatistics statistics = monteCarlo.run(trials, seed);
+        System.out.printf("%s in %d ms%n", statistics, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Runs the server mode until the JVM is stopped, logging only warnings. The server refuses jobs when 64 jobs per
+     * worker are waiting.
+     */
+    private static void serve(int port, int workers) throws IOException {
+        Configurator.setLevel(ByzantineGenerals.class.getPackage().getName(), Level.WARN);
+
+        ConsensusServer server = new ConsensusServer(port, workers, workers * 64, ConsensusServer.DEFAULT_CACHE_SIZE);
+        try {
+            server.warmUp(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        server.start();
+        System.out.printf("Serving consensus jobs on http://localhost:%d/consensus%n", server.getPort());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+    }
+
+    /**
+     * Runs the verification mode, logging only warnings while the placements run.
+     */
+    private static void runVerification(List<String> arguments, Supplier<Algorithm> algorithm, int parallelism,
+                                        TraitorStrategy strategy, boolean symmetric) {
+        Configurator.setLevel(ByzantineGenerals.class.getPackage().getName(), Level.WARN);
+
+        PlacementVerifier verifier = new PlacementVerifier(arguments.get(1).split(",").length, Integer.parseInt(arguments.get(0)),
+                strategy, algorithm, symmetric);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            List<PlacementVerifier.Violation> violations = verifier.verify(Order.valueOf(arguments.get(2)), pool);
+            for (PlacementVerifier.Violation violation : violations) {
+                System.out.println(violation);
+            }
+            System.out.printf("%d placements, %d executed, %d violations in %d ms%n", verifier.getPlacements(), verifier.getExecutions(),
+                    violations.stream().mapToLong(PlacementVerifier.Violation::getPlacements).sum(), (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the adversary search mode, logging only warnings while the assignments run.
+     */
+    private static void runAdversarySearch(List<String> arguments, Supplier<Algorithm> algorithm, int parallelism,
+                                           int traitors, long seed, List<String> candidates) {
+        Configurator.setLevel(ByzantineGenerals.class.getPackage().getName(), Level.WARN);
+
+        GeneralRegistry registry = new GeneralRegistry(Arrays.asList(arguments.get(1).split(",")));
+        registry.sampleTraitors(traitors, new Random(seed));
+        List<TraitorStrategy> strategies = new ArrayList<>(candidates.size());
+        for (String candidate : candidates) {
+            strategies.add(TraitorStrategy.valueOf(candidate));
+        }
+        ExhaustiveAdversarySearch search = new ExhaustiveAdversarySearch(registry.size(), Integer.parseInt(arguments.get(0)),
+                registry.getTraitors(), strategies, algorithm);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.nanoTime();
+            TraitorStrategy[] adversary = search.search(Order.valueOf(arguments.get(2)), pool);
+            if (adversary == null) {
+                System.out.println("No adversary breaks the agreement");
+            } else {
+                StringJoiner assignment = new StringJoiner(", ", "Adversary: ", "");
+                for (int id = 0; id < adversary.length; id++) {
+                    if (adversary[id] != null) {
+                        assignment.add(registry.getName(id) + "=" + candidates.get(strategies.indexOf(adversary[id])));
+                    }
+                }
+                System.out.println(assignment);
+            }
+            System.out.printf("%d assignments evaluated, %d skipped in %d ms%n", search.getEvaluated(), search.getSkipped(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the sweep mode, logging only warnings while the cells run.
+     */
+    private static void runSweep(Sweep sweep, File file, int threads) throws IOException {
+        Configurator.setLevel(ByzantineGenerals.class.getPackage().getName(), Level.WARN);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            long run = sweep.run(file, executor, threads * 4);
+            System.out.printf("%d cells run, %d skipped, in %d ms: %s%n", run, sweep.getSkipped(), (System.nanoTime() - start) / 1_000_000, file);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Runs the interactive consistency mode, printing the agreement vector of each general.
+     */
+    private static void runInteractive(List<String> arguments, TraitorStrategy strategy, Long seed) {
+        Builder builder = new Builder(arguments.get(1))
+                .setRecursionLevel(arguments.get(0))
+                .setStrategy(strategy);
+        if (seed != null) {
+            builder.setSeed(seed);
+        }
+        List<General> generals = builder.build().getGenerals();
+        List<Order> values = new ArrayList<>();
+        for (String value : arguments.get(2).split(",")) {
+            values.add(Order.valueOf(value));
+        }
+
+        InteractiveConsistency consistency = new InteractiveConsistency(generals, Integer.parseInt(arguments.get(0)));
+        long start = System.nanoTime();
+        Order[][] decisions = consistency.execute(values);
+        long nanos = System.nanoTime() - start;
+        for (int i = 0; i < generals.size(); i++) {
+            System.out.printf("%s%s: %s%n", generals.get(i).getName(), generals.get(i).isLoyal() ? "" : " (traitor)",
+                    Arrays.toString(decisions[i]));
+        }
+        System.out.printf("%d batches, %d orders in %d ms%n", consistency.getBatches(), consistency.getOrders(), nanos / 1_000_000);
+    }
+
+    /**
+     * Runs the pipeline mode, logging only warnings while the instances run.
+     */
+    private static void runInstances(List<String> arguments, long instances, int depth, long seed, TraitorStrategy strategy) {
+        Configurator.setLevel(ByzantineGenerals.class.getPackage().getName(), Level.WARN);
+
+        ByzantineGenerals byzantineGenerals = new Builder(arguments.get(1))
+                .setRecursionLevel(arguments.get(0))
+                .setSeed(seed)
+                .setStrategy(strategy)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(depth);
+        try {
+            Pipeline pipeline = new Pipeline(byzantineGenerals.getGenerals(), Integer.parseInt(arguments.get(0)), executor, depth);
+            Order command = Order.valueOf(arguments.get(2));
+            long[] decided = new long[Order.values().length + 1];
+            pipeline.run(() -> LongStream.range(0, instances).mapToObj(i -> command).iterator(),
+                    decision -> decided[decision != null ? decision.ordinal() : Order.values().length]++);
+            System.out.printf("%d decisions (%s %d, %s %d, undecided %d), %.1f decisions/s%n", pipeline.getDecisions(),
+                    Order.ATTACK, decided[Order.ATTACK.ordinal()], Order.RETREAT, decided[Order.RETREAT.ordinal()],
+                    decided[Order.values().length], pipeline.getDecisionsPerSecond());
+        } finally {
+            executor.shutdown();
+        }
     }
 
     /**
@@ -143,13 +536,16 @@ public class ByzantineGenerals {
      */
     static class Builder {
         private final List<String> generalNames;
-        private final int totalGenerals;
         private Order commanderOrder;
         private int recursionLevel;
+        private Algorithm algorithm = new AlgorithmOMm();
+        private Random random;
+        private TraitorStrategy strategy = TraitorStrategy.ODD_INDEX;
+        private TraceRecorder recorder;
+        private Metrics metrics;
 
         public Builder(List<String> generalNames) {
             this.generalNames = generalNames;
-            this.totalGenerals = generalNames.size();
         }
 
         public Builder(String generalNames) {
@@ -174,26 +570,58 @@ public class ByzantineGenerals {
             return setRecursionLevel(Integer.parseInt(recursionLevel));
         }
 
-        private List<String> generateTraitorNames(int numberTraitors) {
-            List<String> traitors = new ArrayList<>();
-            while (numberTraitors > 0) {
-                String name = generalNames.get(ThreadLocalRandom.current().nextInt(0, totalGenerals));
-                if (!traitors.contains(name)) {
-                    traitors.add(name);
-                    numberTraitors--;
-                }
-            }
-            return traitors;
+        public Builder setAlgorithm(Algorithm algorithm) {
+            this.algorithm = algorithm;
+            return this;
+        }
+
+        /**
+         * Sets the seed used to select the traitors, so the same traitors are selected on every build.
+         */
+        public Builder setSeed(long seed) {
+            this.random = new Random(seed);
+            return this;
+        }
+
+        /**
+         * Sets the strategy of the traitors.
+         */
+        public Builder setStrategy(TraitorStrategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * Sets the recorder of the messages received by the generals.
+         */
+        public Builder setRecorder(TraceRecorder recorder) {
+            this.recorder = recorder;
+            return this;
+        }
+
+        /**
+         * Sets the metrics the generals and the algorithm report to.
+         */
+        public Builder setMetrics(Metrics metrics) {
+            this.metrics = metrics;
+            return this;
         }
 
+        /**
+         * Builds the generals, with 'recursionLevel' traitors selected at random.
+         *
+         * @throws IllegalArgumentException If a general name is repeated, or there are less generals than traitors.
+         */
         public ByzantineGenerals build() {
-            List<General> generals = new ArrayList<>();
-            List<String> traitors = generateTraitorNames(recursionLevel);
-            // init generals
-            for (int i = 0; i < totalGenerals; i++) {
-                generals.add(new General(generalNames.get(i), !traitors.contains(generalNames.get(i))));
+            GeneralRegistry registry = new GeneralRegistry(generalNames);
+            registry.sampleTraitors(recursionLevel, random != null ? random : ThreadLocalRandom.current());
+            List<General> generals = registry.createGenerals();
+            for (General general : generals) {
+                general.setStrategy(strategy);
+                general.setRecorder(recorder);
+                general.setMetrics(metrics);
             }
-            return new ByzantineGenerals(generals, commanderOrder, recursionLevel);
+            return new ByzantineGenerals(generals, commanderOrder, recursionLevel, algorithm);
         }
     }
 }
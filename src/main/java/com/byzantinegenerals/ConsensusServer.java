@@ -0,0 +1,450 @@
+package com.byzantinegenerals;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs consensus jobs for HTTP clients on localhost, so many small configurations share a warmed-up JVM.
+ * <p>A job is sent to '/consensus' as the parameters (of the query or a form body) 'generals' (names separated by
+ * comma, the commander first), 'm', 'order', and either 'traitors' (names separated by comma) or 'seed' (traitors
+ * selected as by the Builder); optionally 'algorithm' (see {@link ByzantineGenerals#algorithm(String)}, default om) and
+ * 'strategy' (see {@link TraitorStrategy#valueOf(String)}, default odd). The response is a JSON object with the
+ * decision, the violated condition, the traitors and the order of every general. '/stats' reports the counters.
+ * <p>Jobs run on a bounded pool of workers: when its queue is full, the job is refused with 503 (Service Unavailable)
+ * and a 'Retry-After' header. Jobs with the traitors fixed by 'traitors' or 'seed' are deterministic, so their responses
+ * are kept in a LRU cache.
+ * <p>Jobs of more than {@link #MAX_MESSAGES} messages of OM(m) are refused with 400, so a worker is never held by a
+ * single job for long, and a job not answered within the timeout (queued time included) is cancelled with 504 (Gateway
+ * Timeout). The cancellation interrupts the worker, stopping the algorithms that wait on other threads; the others run
+ * to the end of the job, bounded by the message limit.
+ */
+public class ConsensusServer {
+
+    private static final Logger LOGGER = LogManager.getLogger(ConsensusServer.class);
+
+    public static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    /**
+     * The largest job accepted, in messages of OM(m) (see {@link ExecutionPlanner}): about a second of work.
+     */
+    public static final double MAX_MESSAGES = 1e7;
+
+    private final HttpServer server;
+    private final ThreadPoolExecutor executor;
+    private final ScheduledThreadPoolExecutor timer;
+    private final Map<String, String> cache;
+    private long timeoutMillis = TimeUnit.SECONDS.toMillis(10);
+
+    private final LongAdder jobs = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Constructs the server, bound to the loopback address.
+     *
+     * @param port The port, or 0 for any free port.
+     * @param workers The number of threads running jobs.
+     * @param queueSize The number of jobs waiting for a worker before jobs are refused.
+     * @param cacheSize The number of cached responses, the least recently used are evicted.
+     * @throws IOException If the port cannot be bound.
+     */
+    public ConsensusServer(int port, int workers, int queueSize, int cacheSize) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueSize));
+        this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "consensus-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        this.cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        server.createContext("/consensus", this::consensus);
+        server.createContext("/stats", this::stats);
+    }
+
+    public void start() {
+        server.start();
+        LOGGER.info("Consensus server listening on {}", server.getAddress());
+    }
+
+    /**
+     * Stops accepting jobs, and waits for the running ones to respond.
+     */
+    public void stop() throws InterruptedException {
+        server.stop(0);
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        timer.shutdownNow();
+    }
+
+    /**
+     * Sets the time a job may take, from its arrival to its response.
+     *
+     * @param timeout The timeout.
+     * @param unit The unit of the timeout.
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutMillis = unit.toMillis(timeout);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // Utilized on unit tests
+    ThreadPoolExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Runs jobs on every worker, so the algorithms are compiled before the first client arrives.
+     *
+     * @param iterations The number of jobs per worker.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public void warmUp(int iterations) throws InterruptedException {
+        Job job = Job.parse(parameters("generals=G0,G1,G2,G3,G4,G5,G6&m=2&order=ATTACK&seed=0"));
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < executor.getMaximumPoolSize(); i++) {
+            workers.add(() -> {
+                for (int j = 0; j < iterations; j++) {
+                    job.run();
+                }
+                return null;
+            });
+        }
+        executor.invokeAll(workers);
+    }
+
+    /**
+     * Handles '/consensus': answers from the cache, or queues the job.
+     */
+    private void consensus(HttpExchange exchange) throws IOException {
+        jobs.increment();
+        Job job;
+        try {
+            Map<String, String> parameters = parameters(exchange.getRequestURI().getRawQuery());
+            if ("POST".equals(exchange.getRequestMethod())) {
+                parameters.putAll(parameters(new String(readAll(exchange.getRequestBody()), StandardCharsets.UTF_8)));
+            }
+            job = Job.parse(parameters);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, error(e));
+            return;
+        }
+
+        String key = job.getKey();
+        if (key != null) {
+            String cached;
+            synchronized (cache) {
+                cached = cache.get(key);
+            }
+            if (cached != null) {
+                hits.increment();
+                respond(exchange, 200, cached);
+                return;
+            }
+        }
+        try {
+            Execution execution = new Execution(exchange, job, key);
+            execution.future = executor.submit(execution);
+            execution.timeout = timer.schedule(execution::expire, timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 503, "{\"error\":\"queue full\"}");
+        }
+    }
+
+    /**
+     * A queued job, answered once: by its worker, or with 504 when it times out.
+     */
+    private final class Execution implements Runnable {
+
+        private final HttpExchange exchange;
+        private final Job job;
+        private final String key;
+        private final AtomicBoolean answered = new AtomicBoolean();
+        private volatile Future<?> future;
+        private volatile ScheduledFuture<?> timeout;
+
+        Execution(HttpExchange exchange, Job job, String key) {
+            this.exchange = exchange;
+            this.job = job;
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            try {
+                String response = job.run();
+                if (key != null) {
+                    synchronized (cache) {
+                        cache.put(key, response);
+                    }
+                }
+                answer(200, response);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Job failed: {}", key, e);
+                answer(500, error(e));
+            }
+        }
+
+        private void answer(int status, String json) {
+            if (answered.compareAndSet(false, true)) {
+                ScheduledFuture<?> timeout = this.timeout;
+                if (timeout != null) {
+                    timeout.cancel(false);
+                }
+                respond(exchange, status, json);
+            }
+        }
+
+        /**
+         * Cancels the job, if it is not answered yet.
+         */
+        void expire() {
+            if (answered.compareAndSet(false, true)) {
+                future.cancel(true);
+                timedOut.increment();
+                LOGGER.warn("Job timed out after {} ms: {}", timeoutMillis, key);
+                respond(exchange, 504, "{\"error\":\"timeout\"}");
+            }
+        }
+    }
+
+    /**
+     * Handles '/stats'.
+     */
+    private void stats(HttpExchange exchange) {
+        int cached;
+        synchronized (cache) {
+            cached = cache.size();
+        }
+        respond(exchange, 200, "{\"jobs\":" + jobs.sum() +
+                ",\"hits\":" + hits.sum() +
+                ",\"rejected\":" + rejected.sum() +
+                ",\"timedOut\":" + timedOut.sum() +
+                ",\"queued\":" + executor.getQueue().size() +
+                ",\"cached\":" + cached + "}");
+    }
+
+    private static String error(Exception e) {
+        return "{\"error\":\"" + escape(String.valueOf(e)) + "\"}";
+    }
+
+    /**
+     * Escapes a string for a JSON string literal.
+     */
+    static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < ' ') {
+                escaped.append(String.format("\\u%04x", (int) c));
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        try (OutputStream output = exchange.getResponseBody()) {
+            exchange.sendResponseHeaders(status, body.length);
+            output.write(body);
+        } catch (IOException e) {
+            LOGGER.warn("Cannot respond to {}", exchange.getRemoteAddress(), e);
+        }
+    }
+
+    private static byte[] readAll(InputStream input) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decodes 'name=value' pairs separated by '&'.
+     */
+    static Map<String, String> parameters(String encoded) {
+        Map<String, String> parameters = new HashMap<>();
+        if (encoded == null || encoded.isEmpty()) {
+            return parameters;
+        }
+        try {
+            for (String pair : encoded.split("&")) {
+                int equals = pair.indexOf('=');
+                if (equals > 0) {
+                    parameters.put(URLDecoder.decode(pair.substring(0, equals), "UTF-8"), URLDecoder.decode(pair.substring(equals + 1), "UTF-8"));
+                }
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+        return parameters;
+    }
+
+    /**
+     * A consensus job, with its traitors resolved.
+     */
+    static class Job {
+
+        private final List<String> generals;
+        private final int m;
+        private final Order order;
+        private final BitSet traitors;
+        private final boolean deterministic;
+        private final String algorithm;
+        private final String strategy;
+
+        private Job(List<String> generals, int m, Order order, BitSet traitors, boolean deterministic, String algorithm, String strategy) {
+            this.generals = generals;
+            this.m = m;
+            this.order = order;
+            this.traitors = traitors;
+            this.deterministic = deterministic;
+            this.algorithm = algorithm;
+            this.strategy = strategy;
+        }
+
+        /**
+         * @throws IllegalArgumentException If a parameter is missing or invalid, or the job exceeds
+         *                                  {@link #MAX_MESSAGES}.
+         */
+        static Job parse(Map<String, String> parameters) {
+            for (String name : new String[]{"generals", "m", "order"}) {
+                if (!parameters.containsKey(name)) {
+                    throw new IllegalArgumentException("Missing parameter: " + name);
+                }
+            }
+            List<String> generals = Arrays.asList(parameters.get("generals").split(","));
+            int m = Integer.parseInt(parameters.get("m"));
+            Order order = Order.valueOf(parameters.get("order"));
+            String algorithm = parameters.getOrDefault("algorithm", "om");
+            String strategy = parameters.getOrDefault("strategy", "odd");
+            ByzantineGenerals.algorithm(algorithm);
+            TraitorStrategy.valueOf(strategy);
+            if (m < 0 || m >= generals.size()) {
+                throw new IllegalArgumentException(String.format("OM(%d) needs more than %d generals, not %d", m, m, generals.size()));
+            }
+            double messages = ExecutionPlanner.messages(generals.size() - 1, m);
+            if (messages > MAX_MESSAGES) {
+                throw new IllegalArgumentException(String.format("OM(%d) for %d generals sends %.3g messages, more than %.3g",
+                        m, generals.size(), messages, MAX_MESSAGES));
+            }
+
+            GeneralRegistry registry = new GeneralRegistry(generals);
+            boolean deterministic = true;
+            if (parameters.containsKey("traitors")) {
+                for (String traitor : parameters.get("traitors").split(",")) {
+                    if (!traitor.isEmpty()) {
+                        registry.setTraitor(registry.getId(traitor), true);
+                    }
+                }
+            } else if (parameters.containsKey("seed")) {
+                registry.sampleTraitors(m, new Random(Long.parseLong(parameters.get("seed"))));
+            } else {
+                registry.sampleTraitors(m, ThreadLocalRandom.current());
+                deterministic = false;
+            }
+            return new Job(generals, m, order, registry.getTraitors(), deterministic, algorithm, strategy);
+        }
+
+        /**
+         * @return The key of the job in the cache, or null if it is not deterministic.
+         */
+        String getKey() {
+            return deterministic ? String.join(",", generals) + ";" + m + ";" + order + ";" + traitors + ";" + algorithm + ";" + strategy : null;
+        }
+
+        /**
+         * Runs the algorithm.
+         *
+         * @return The JSON response.
+         */
+        String run() {
+            GeneralRegistry registry = new GeneralRegistry(generals);
+            for (int id = traitors.nextSetBit(0); id >= 0; id = traitors.nextSetBit(id + 1)) {
+                registry.setTraitor(id, true);
+            }
+            List<General> instance = registry.createGenerals();
+            TraitorStrategy traitorStrategy = TraitorStrategy.valueOf(strategy);
+            for (General general : instance) {
+                general.setStrategy(traitorStrategy);
+            }
+            ByzantineGenerals byzantineGenerals = new ByzantineGenerals(instance, order, m, ByzantineGenerals.algorithm(algorithm).get());
+            byzantineGenerals.executeAlgorithmOMm();
+
+            Order decision = byzantineGenerals.getDecision();
+            String violation = ByzantineGenerals.violatedCondition(instance, order);
+            StringBuilder json = new StringBuilder("{")
+                    .append("\"decision\":").append(decision != null ? "\"" + decision + "\"" : "null")
+                    .append(",\"violation\":").append(violation != null ? "\"" + violation + "\"" : "null")
+                    .append(",\"traitors\":[");
+            for (int id = traitors.nextSetBit(0); id >= 0; id = traitors.nextSetBit(id + 1)) {
+                json.append(id > traitors.nextSetBit(0) ? "," : "").append('"').append(escape(registry.getName(id))).append('"');
+            }
+            json.append("],\"orders\":[");
+            for (int id = 0; id < instance.size(); id++) {
+                json.append(id > 0 ? "," : "").append('"').append(instance.get(id).getOrder()).append('"');
+            }
+            return json.append("]}").toString();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConsensusServer{" +
+                "address=" + server.getAddress() +
+                ", workers=" + executor.getMaximumPoolSize() +
+                ", jobs=" + jobs.sum() +
+                ", hits=" + hits.sum() +
+                ", rejected=" + rejected.sum() +
+                '}';
+    }
+}
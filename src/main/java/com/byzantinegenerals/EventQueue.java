@@ -0,0 +1,172 @@
+package com.byzantinegenerals;
+
+import java.util.Arrays;
+
+/**
+ * Priority queue of the message deliveries of a simulation, ordered by time.
+ * <p>As a simulation never schedules a delivery before the last polled one, the queue is a radix heap: the bucket 'b'
+ * holds the deliveries whose time differs from the last polled time at the bit 'b - 1' and none above, and the bucket
+ * 0 those at the last polled time. Polling empties the lowest bucket into the lower ones, so each delivery moves at
+ * most 64 times, and the buckets are scanned sequentially instead of sifting a binary heap with a cache miss per level.
+ * <p>Each delivery is kept in parallel primitive arrays at a slot, and the buckets hold the slots with their times, so
+ * the queue allocates nothing once it holds the most deliveries in flight. Deliveries at the same time are polled in
+ * a order that only depends on the order they were scheduled. The head is read with {@link #poll()} and the getters of
+ * the polled delivery.
+ */
+final class EventQueue {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] receivers = new int[INITIAL_CAPACITY];
+    private int[] senders = new int[INITIAL_CAPACITY];
+    private int[] levels = new int[INITIAL_CAPACITY];
+    private int[] ranks = new int[INITIAL_CAPACITY];
+    private boolean[] attacks = new boolean[INITIAL_CAPACITY];
+    private int[] free = new int[INITIAL_CAPACITY];
+    private int freeCount;
+    private int slots;
+
+    private final long[][] bucketTimes = new long[Long.SIZE + 1][];
+    private final int[][] buckets = new int[Long.SIZE + 1][];
+    private final int[] bucketSizes = new int[Long.SIZE + 1];
+    private int size;
+
+    // the polled delivery
+    private long time;
+    private int receiver;
+    private int sender;
+    private int level;
+    private int rank;
+    private boolean attack;
+
+    EventQueue() {
+        for (int b = 0; b < buckets.length; b++) {
+            bucketTimes[b] = new long[16];
+            buckets[b] = new int[16];
+        }
+    }
+
+    /**
+     * Schedules a delivery.
+     *
+     * @param time The simulated time of the delivery, in nanoseconds.
+     * @param receiver The position of the receiver.
+     * @param sender The position of the sender.
+     * @param level The level of the path of the order.
+     * @param rank The rank of the path of the order.
+     * @param order The delivered order.
+     * @throws IllegalArgumentException If the time is before the last polled delivery.
+     */
+    void add(long time, int receiver, int sender, int level, int rank, Order order) {
+        if (time < this.time) {
+            throw new IllegalArgumentException(String.format("Delivery at %d scheduled after polling %d", time, this.time));
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = free[--freeCount];
+        } else {
+            if (slots == receivers.length) {
+                grow();
+            }
+            slot = slots++;
+        }
+        receivers[slot] = receiver;
+        senders[slot] = sender;
+        levels[slot] = level;
+        ranks[slot] = rank;
+        attacks[slot] = Order.ATTACK.equals(order);
+        push(time, slot);
+        size++;
+    }
+
+    /**
+     * Removes the earliest delivery, read by the getters until the next poll.
+     *
+     * @return False if the queue is empty.
+     */
+    boolean poll() {
+        if (size == 0) {
+            return false;
+        }
+        if (bucketSizes[0] == 0) {
+            int b = 1;
+            while (bucketSizes[b] == 0) {
+                b++;
+            }
+            long[] times = bucketTimes[b];
+            int[] bucket = buckets[b];
+            int count = bucketSizes[b];
+            long min = Long.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                min = Math.min(min, times[i]);
+            }
+            // every delivery of the bucket moves to a lower one
+            time = min;
+            bucketSizes[b] = 0;
+            for (int i = 0; i < count; i++) {
+                push(times[i], bucket[i]);
+            }
+        }
+
+        int slot = buckets[0][--bucketSizes[0]];
+        size--;
+        receiver = receivers[slot];
+        sender = senders[slot];
+        level = levels[slot];
+        rank = ranks[slot];
+        attack = attacks[slot];
+        free[freeCount++] = slot;
+        return true;
+    }
+
+    private void push(long time, int slot) {
+        long bits = time ^ this.time;
+        int b = bits == 0 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(bits);
+        int count = bucketSizes[b];
+        if (count == buckets[b].length) {
+            bucketTimes[b] = Arrays.copyOf(bucketTimes[b], count * 2);
+            buckets[b] = Arrays.copyOf(buckets[b], count * 2);
+        }
+        bucketTimes[b][count] = time;
+        buckets[b][count] = slot;
+        bucketSizes[b] = count + 1;
+    }
+
+    private void grow() {
+        int capacity = receivers.length * 2;
+        receivers = Arrays.copyOf(receivers, capacity);
+        senders = Arrays.copyOf(senders, capacity);
+        levels = Arrays.copyOf(levels, capacity);
+        ranks = Arrays.copyOf(ranks, capacity);
+        attacks = Arrays.copyOf(attacks, capacity);
+        free = Arrays.copyOf(free, capacity);
+    }
+
+    int size() {
+        return size;
+    }
+
+    long getTime() {
+        return time;
+    }
+
+    int getReceiver() {
+        return receiver;
+    }
+
+    int getSender() {
+        return sender;
+    }
+
+    int getLevel() {
+        return level;
+    }
+
+    int getRank() {
+        return rank;
+    }
+
+    Order getOrder() {
+        return attack ? Order.ATTACK : Order.RETREAT;
+    }
+}
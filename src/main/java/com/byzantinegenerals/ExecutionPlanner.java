@@ -0,0 +1,270 @@
+package com.byzantinegenerals;
+
+import java.io.File;
+
+/**
+ * Chooses how to execute OM(m) from the number of generals and the recursion level, before running it.
+ * <p>For every engine the planner estimates the messages, the memory of the information trees and the time, and
+ * chooses the fastest one fitting the memory budgets. As the estimates are rough, sequential OM(m) is kept unless
+ * another engine is estimated {@link #MARGIN} times faster:
+ * <ul>
+ * <li>om and parallel keep the trees on the heap, (n - 1) trees of levels 1 to m;</li>
+ * <li>memoized keeps no trees, only a cache of sub-problems, and supports up to 64 generals;</li>
+ * <li>offheap and mapped move the trees to direct buffers or to a temporary file, slower to update.</li>
+ * </ul>
+ * <p>The time estimates are rough, calibrated on a single core: they are meant to tell seconds from hours.
+ */
+public class ExecutionPlanner {
+
+    /**
+     * Nanoseconds per message of OM(m), sent, received and resolved.
+     */
+    static final double NANOS_PER_MESSAGE = 150;
+
+    /**
+     * Nanoseconds per vote counted by memoized OM(m).
+     */
+    static final double NANOS_PER_VOTE = 100;
+
+    /**
+     * Slowdown of the updates of off-heap and mapped trees, which take a lock per word.
+     */
+    static final double OFF_HEAP_SLOWDOWN = 2;
+
+    /**
+     * Parallel efficiency of ParallelAlgorithmOMm, per core.
+     */
+    static final double PARALLEL_EFFICIENCY = 0.7;
+
+    /**
+     * Speedup a engine must be estimated to have over the chosen one to replace it.
+     */
+    static final double MARGIN = 2;
+
+    /**
+     * Bytes per cached sub-problem of memoized OM(m), key and entry included.
+     */
+    static final long BYTES_PER_SUB_PROBLEM = 96;
+
+    private final long heapBudget;
+    private final long offHeapBudget;
+    private final long diskBudget;
+    private final int cores;
+
+    /**
+     * Constructs a planner for this JVM: 3/4 of the maximum heap, as much direct memory as heap, the usable space of
+     * the temporary directory and all processors.
+     */
+    public ExecutionPlanner() {
+        this(Runtime.getRuntime().maxMemory() / 4 * 3, Runtime.getRuntime().maxMemory(),
+                new File(System.getProperty("java.io.tmpdir")).getUsableSpace(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a planner.
+     *
+     * @param heapBudget The bytes of heap the trees may take.
+     * @param offHeapBudget The bytes of direct memory the trees may take.
+     * @param diskBudget The bytes of temporary file the trees may take.
+     * @param cores The number of cores.
+     */
+    public ExecutionPlanner(long heapBudget, long offHeapBudget, long diskBudget, int cores) {
+        this.heapBudget = heapBudget;
+        this.offHeapBudget = offHeapBudget;
+        this.diskBudget = diskBudget;
+        this.cores = cores;
+    }
+
+    /**
+     * Plans a execution.
+     *
+     * @param totalGenerals The number of generals, the commander included.
+     * @param m The recursion level, also the number of traitors.
+     * @param memoizable False if memoized OM(m) cannot run: the traitors strategy is path sensitive, or the messages
+     *                   are traced (memoized OM(m) sends none).
+     * @return The fastest plan fitting the budgets.
+     * @throws IllegalArgumentException If n <= 3m, as OM(m) cannot reach agreement with m traitors, or no engine fits
+     *                                  the budgets.
+     */
+    public Plan plan(int totalGenerals, int m, boolean memoizable) {
+        if (m < 0 || totalGenerals <= 3 * m) {
+            throw new IllegalArgumentException(String.format("OM(%d) needs more than %d generals, not %d", m, 3 * m, totalGenerals));
+        }
+        int lieutenants = totalGenerals - 1;
+        double messages = messages(lieutenants, m);
+        double treeBytes = treeBytes(lieutenants, m);
+        double nanos = messages * NANOS_PER_MESSAGE;
+        double speedup = m > 1 ? Math.max(1, Math.min(cores, lieutenants) * PARALLEL_EFFICIENCY) : 1;   // OM(1) runs sequentially
+        boolean trees = paths(lieutenants, Math.min(m, lieutenants)) <= Integer.MAX_VALUE;    // see InformationTree#level
+
+        Plan best = null;
+        if (trees && treeBytes <= heapBudget) {
+            best = faster(best, new Plan("om", "heap", messages, treeBytes, nanos));
+            if (speedup > 1) {
+                best = faster(best, new Plan("parallel", "heap", messages, treeBytes, nanos / speedup));
+            }
+        }
+        double subProblems = subProblems(lieutenants, m);
+        if (totalGenerals <= Long.SIZE && memoizable && subProblems <= MemoizedAlgorithmOMm.DEFAULT_CACHE_SIZE) {
+            best = faster(best, new Plan("memoized", "heap", 0, subProblems * BYTES_PER_SUB_PROBLEM, votes(lieutenants, m) * NANOS_PER_VOTE));
+        }
+        if (best == null && trees) {
+            String algorithm = speedup > 1 ? "parallel" : "om";
+            if (treeBytes <= offHeapBudget) {
+                best = new Plan(algorithm, "offheap", messages, treeBytes, nanos * OFF_HEAP_SLOWDOWN / speedup);
+            } else if (treeBytes <= diskBudget) {
+                best = new Plan(algorithm, "mapped", messages, treeBytes, nanos * OFF_HEAP_SLOWDOWN / speedup);
+            }
+        }
+        if (best == null) {
+            throw new IllegalArgumentException(String.format("OM(%d) for %d generals does not fit: %.3g messages, %.3g bytes of trees",
+                    m, totalGenerals, messages, treeBytes));
+        }
+        return best;
+    }
+
+    private static Plan faster(Plan best, Plan plan) {
+        return best == null || plan.nanos * MARGIN < best.nanos ? plan : best;
+    }
+
+    /**
+     * @return The messages of OM(m): 'lieutenants' at level 0, times 'lieutenants - k' at each level k.
+     */
+    static double messages(int lieutenants, int m) {
+        double messages = 0;
+        double level = 1;
+        for (int k = 0; k <= Math.min(m, lieutenants - 1); k++) {
+            level *= lieutenants - k;
+            messages += level;
+        }
+        return messages;
+    }
+
+    /**
+     * @return The bytes of the information trees of all lieutenants: two bit planes per level, 1 to m.
+     */
+    static double treeBytes(int lieutenants, int m) {
+        double bytes = 0;
+        for (int level = 1; level <= Math.min(m, lieutenants); level++) {
+            bytes += 2 * Long.BYTES * Math.ceil(paths(lieutenants, level) / (double) Long.SIZE);
+        }
+        return bytes * lieutenants;
+    }
+
+    /**
+     * @return The distinct sub-problems of memoized OM(m) at the levels up to m: the commander and the set of generals
+     * on the path, with either order and set of traitors.
+     */
+    static double subProblems(int lieutenants, int m) {
+        double subProblems = 0;
+        for (int level = 1; level <= Math.min(m, lieutenants); level++) {
+            subProblems += Math.min(paths(lieutenants, level), 2.0 * level * binomial(lieutenants, level));
+        }
+        return subProblems;
+    }
+
+    /**
+     * @return The votes counted by memoized OM(m): the lieutenants of every sub-problem.
+     */
+    private static double votes(int lieutenants, int m) {
+        double votes = lieutenants;
+        for (int level = 1; level <= Math.min(m, lieutenants); level++) {
+            votes += Math.min(paths(lieutenants, level), 2.0 * level * binomial(lieutenants, level)) * (lieutenants - level);
+        }
+        return votes;
+    }
+
+    /**
+     * @return The paths of a level of the information trees (see {@link InformationTree#size(int, int)}), without
+     * overflowing.
+     */
+    private static double paths(int lieutenants, int level) {
+        double paths = 1;
+        for (int k = 0; k < level; k++) {
+            paths *= lieutenants - k;
+        }
+        return paths;
+    }
+
+    private static double binomial(int n, int k) {
+        double binomial = 1;
+        for (int i = 1; i <= k; i++) {
+            binomial = binomial * (n - k + i) / i;
+        }
+        return binomial;
+    }
+
+    /**
+     * A chosen engine and its estimates.
+     */
+    public static class Plan {
+
+        private final String algorithm;
+        private final String storage;
+        private final double messages;
+        private final double bytes;
+        private final double nanos;
+
+        Plan(String algorithm, String storage, double messages, double bytes, double nanos) {
+            this.algorithm = algorithm;
+            this.storage = storage;
+            this.messages = messages;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return The algorithm, as named by {@link ByzantineGenerals#algorithm(String)}.
+         */
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        /**
+         * @return The storage of the trees, as named by {@link ByzantineGenerals#storage(String)}.
+         */
+        public String getStorage() {
+            return storage;
+        }
+
+        /**
+         * @return The estimated messages, none for memoized OM(m).
+         */
+        public double getMessages() {
+            return messages;
+        }
+
+        /**
+         * @return The estimated bytes of the information trees, or of the cache for memoized OM(m).
+         */
+        public double getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return The estimated time in milliseconds.
+         */
+        public double getMillis() {
+            return nanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "Plan{" +
+                    "algorithm=" + algorithm +
+                    ", storage=" + storage +
+                    String.format(", messages=%.3g, bytes=%.3g, millis=%.3g", messages, bytes, getMillis()) +
+                    '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutionPlanner{" +
+                "heapBudget=" + heapBudget +
+                ", offHeapBudget=" + offHeapBudget +
+                ", diskBudget=" + diskBudget +
+                ", cores=" + cores +
+                '}';
+    }
+}
@@ -0,0 +1,198 @@
+package com.byzantinegenerals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Searches exhaustively for a adversary breaking the agreement of a algorithm: a assignment of candidate strategies to
+ * the traitors after which the loyal lieutenants disagree (IC1), or do not obey a loyal commander (IC2).
+ * <p>Every assignment is a leaf of a tree branching on the strategy of one traitor per level, and no branch is cut on
+ * its own: a strategy deeper in the tree may still flip the majority of any lieutenant, so the leaves are enumerated
+ * one by one, up to candidates^traitors runs of the algorithm. The branches are explored in parallel on a fork/join
+ * pool, every one of them until a adversary is found: the branches left are then skipped. The whole tree is skipped
+ * only when the algorithm guarantees the agreement for the number of traitors (see
+ * {@link Algorithm#tolerates(int, int, int)}), e.g. OM(m) with at most 'm' traitors among more than '3m' generals.
+ */
+public class ExhaustiveAdversarySearch {
+
+    /**
+     * Branches with less leaves than this are explored sequentially.
+     */
+    private static final long SEQUENTIAL_LEAVES = 16;
+
+    private final int totalGenerals;
+    private final int m;
+    private final int[] traitors;
+    private final List<TraitorStrategy> candidates;
+    private final Supplier<Algorithm> algorithm;
+
+    private final LongAdder evaluated = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    /**
+     * Constructs the search.
+     *
+     * @param totalGenerals The number of generals, the first one being the commander.
+     * @param m The recursion level.
+     * @param traitors The ids of the traitors.
+     * @param candidates The strategies each traitor may follow.
+     * @param algorithm The supplier of the algorithm, a new one for every evaluated adversary.
+     * @throws IllegalArgumentException If there are no candidates, or a traitor is not a general.
+     */
+    public ExhaustiveAdversarySearch(int totalGenerals, int m, BitSet traitors, List<TraitorStrategy> candidates,
+                                     Supplier<Algorithm> algorithm) {
+        if (candidates.isEmpty()) {
+            throw new IllegalArgumentException("No candidate strategies");
+        }
+        if (traitors.length() > totalGenerals) {
+            throw new IllegalArgumentException(String.format("Traitor %d is not one of the %d generals", traitors.length() - 1, totalGenerals));
+        }
+        this.totalGenerals = totalGenerals;
+        this.m = m;
+        this.traitors = traitors.stream().toArray();
+        this.candidates = new ArrayList<>(candidates);
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Searches for a adversary.
+     *
+     * @param command The order of the commander.
+     * @param pool The pool exploring the branches.
+     * @return The strategy of every general breaking the agreement (null for the loyal ones), or null if there is none.
+     */
+    public TraitorStrategy[] search(Order command, ForkJoinPool pool) {
+        long leaves = leaves(0);
+        if (algorithm.get().tolerates(totalGenerals, traitors.length, m)) {
+            skipped.add(leaves);
+            return null;
+        }
+        AtomicReference<TraitorStrategy[]> adversary = new AtomicReference<>();
+        pool.invoke(new Branch(command, new TraitorStrategy[totalGenerals], 0, adversary));
+        return adversary.get();
+    }
+
+    /**
+     * @return The number of adversaries below a level of the tree.
+     */
+    private long leaves(int level) {
+        long leaves = 1;
+        for (int i = level; i < traitors.length; i++) {
+            leaves = leaves > Long.MAX_VALUE / candidates.size() ? Long.MAX_VALUE : leaves * candidates.size();
+        }
+        return leaves;
+    }
+
+    /**
+     * Runs the algorithm against a adversary.
+     *
+     * @return True if the agreement was broken.
+     */
+    private boolean breaks(Order command, TraitorStrategy[] strategies) {
+        List<General> generals = new ArrayList<>(totalGenerals);
+        for (int id = 0; id < totalGenerals; id++) {
+            General general = new General(id, "G" + id, strategies[id] == null);
+            if (strategies[id] != null) {
+                general.setStrategy(strategies[id]);
+            }
+            generals.add(general);
+        }
+        General commander = generals.get(0);
+        commander.setOrder(command);
+        algorithm.get().execute(commander, generals.subList(1, totalGenerals), m);
+        evaluated.increment();
+        return ByzantineGenerals.violatedCondition(generals, command) != null;
+    }
+
+    /**
+     * @return The number of adversaries run.
+     */
+    public long getEvaluated() {
+        return evaluated.sum();
+    }
+
+    /**
+     * @return The number of adversaries skipped, as the algorithm tolerates the traitors or a adversary was found.
+     */
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * The adversaries sharing the strategies of the traitors before a level of the tree.
+     */
+    private class Branch extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Order command;
+        private final TraitorStrategy[] strategies;
+        private final int level;
+        private final AtomicReference<TraitorStrategy[]> adversary;
+
+        Branch(Order command, TraitorStrategy[] strategies, int level, AtomicReference<TraitorStrategy[]> adversary) {
+            this.command = command;
+            this.strategies = strategies;
+            this.level = level;
+            this.adversary = adversary;
+        }
+
+        @Override
+        protected void compute() {
+            long leaves = leaves(level);
+            if (adversary.get() != null) {
+                skipped.add(leaves);
+                return;
+            }
+            if (leaves >= SEQUENTIAL_LEAVES) {
+                List<Branch> branches = new ArrayList<>(candidates.size());
+                for (TraitorStrategy candidate : candidates) {
+                    TraitorStrategy[] strategiesI = strategies.clone();
+                    strategiesI[traitors[level]] = candidate;
+                    branches.add(new Branch(command, strategiesI, level + 1, adversary));
+                }
+                invokeAll(branches);
+            } else {
+                explore(strategies.clone(), level);
+            }
+        }
+
+        /**
+         * Explores the branch depth first, on this thread.
+         */
+        private void explore(TraitorStrategy[] strategies, int level) {
+            if (adversary.get() != null) {
+                skipped.add(leaves(level));
+                return;
+            }
+            if (level == traitors.length) {
+                if (breaks(command, strategies)) {
+                    adversary.compareAndSet(null, strategies.clone());
+                }
+                return;
+            }
+            for (TraitorStrategy candidate : candidates) {
+                strategies[traitors[level]] = candidate;
+                explore(strategies, level + 1);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ExhaustiveAdversarySearch{" +
+                "generals=" + totalGenerals +
+                ", m=" + m +
+                ", traitors=" + traitors.length +
+                ", candidates=" + candidates +
+                ", evaluated=" + getEvaluated() +
+                ", skipped=" + getSkipped() +
+                '}';
+    }
+}
@@ -4,8 +4,6 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.*;
-import java.util.function.Function;
-import java.util.stream.Collectors;
 
 /**
  * Defines the General.
@@ -15,28 +13,78 @@ public class General implements Officer {
 
     private static final Logger LOGGER = LogManager.getLogger(General.class);
 
+    /**
+     * Logs every received message and calculated majority, unless the system property 'messageLogging' is false.
+     * <p>Being a constant, the JIT removes the logging from the hot path when disabled.
+     */
+    static final boolean MESSAGE_LOGGING = Boolean.parseBoolean(System.getProperty("messageLogging", "true"));
+
+    private final int id;
     private String name;
     private boolean loyal;
+    private TraitorStrategy strategy = TraitorStrategy.ODD_INDEX;
 
-    private TreeMap<String, Order> orders = new TreeMap<>();
+    private InformationTree tree;
     private Order order;
+    private TraceRecorder recorder;
+    private Metrics metrics;
 
     /**
-     * Constructs a General.
+     * Constructs a General, without id.
      *
      * @param name The Generals name.
      * @param loyal True if this General is loyal, or False if it is a traitor.
      */
     public General(String name, boolean loyal) {
+        this(-1, name, loyal);
+    }
+
+    /**
+     * Constructs a General.
+     *
+     * @param id The Generals id.
+     * @param name The Generals name.
+     * @param loyal True if this General is loyal, or False if it is a traitor.
+     */
+    public General(int id, String name, boolean loyal) {
+        this.id = id;
         this.name = name;
         this.loyal = loyal;
     }
 
+    /**
+     * Constructs a copy of a General for a new consensus instance: same id, name, loyalty, strategy, recorder and
+     * metrics, without any received order.
+     *
+     * @param general The General to copy.
+     */
+    public General(General general) {
+        this(general.id, general.name, general.loyal);
+        this.strategy = general.strategy;
+        this.recorder = general.recorder;
+        this.metrics = general.metrics;
+    }
+
+    @Override
+    public int getId() {
+        return id;
+    }
+
     @Override
     public String getName() {
         return name;
     }
 
+    /**
+     * Checks if a receiver is this general: by id, or by name for generals without id.
+     */
+    private boolean isSelf(Receiver receiver) {
+        if (receiver == this) {
+            return true;
+        }
+        return id >= 0 ? id == receiver.getId() : Objects.equals(name, receiver.getName());
+    }
+
     // Utilized on unit tests
     void setLoyal(boolean loyal) {
         this.loyal = loyal;
@@ -47,6 +95,19 @@ public class General implements Officer {
         return loyal;
     }
 
+    public TraitorStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Sets the orders this general sends when it is a traitor (default {@link TraitorStrategy#ODD_INDEX}).
+     *
+     * @param strategy The strategy.
+     */
+    public void setStrategy(TraitorStrategy strategy) {
+        this.strategy = Objects.requireNonNull(strategy);
+    }
+
     public Order getOrder() {
         return order != null ? order : Order.RETREAT;
     }
@@ -55,6 +116,50 @@ public class General implements Officer {
         this.order = order;
     }
 
+    /**
+     * Records every received message.
+     *
+     * @param recorder The recorder, or null to stop recording.
+     */
+    public void setRecorder(TraceRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Reports the sent and received messages and the computed majorities.
+     *
+     * @param metrics The metrics, or null to stop reporting.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Prepares the information tree for a execution of OM(m), so it does not grow while orders are received.
+     *
+     * @param lieutenants The number of lieutenants receiving the commander's order.
+     * @param depth The recursion level 'm'.
+     */
+    void prepare(int lieutenants, int depth) {
+        prepare(lieutenants, depth, TreeStorage.HEAP);
+    }
+
+    /**
+     * Prepares the information tree for a execution of OM(m), with its levels on a storage.
+     *
+     * @param lieutenants The number of lieutenants receiving the commander's order.
+     * @param depth The recursion level 'm'.
+     * @param storage The storage of the tree levels.
+     */
+    void prepare(int lieutenants, int depth, TreeStorage storage) {
+        tree = new InformationTree(lieutenants, storage);
+        tree.allocate(depth);
+    }
+
     /**
      * Sends the order to a General (lieutenant).
      *
@@ -63,33 +168,171 @@ public class General implements Officer {
      * @throws IllegalStateException If this general cannot send orders to lieutenant.
      */
     @Override
-    public void sendOrder(Officer lieutenant, int index) {
-        if (Objects.equals(name, lieutenant.getName())) {
+    public void sendOrder(Receiver lieutenant, int index) {
+        sendOrder(lieutenant, index, Path.root(0));
+    }
+
+    /**
+     * Relays the order received for the parent path to a General (lieutenant).
+     * <p>For the root path (and its children) the relayed order is this general's own order.
+     *
+     * @param lieutenant The receiver of the order
+     * @param index The index of the lieutenant receiving the order (used to scramble the order when the general is traitor)
+     * @param path The path of the relayed order, ending on this general
+     * @throws IllegalStateException If this general cannot send orders to lieutenant.
+     */
+    @Override
+    public void sendOrder(Receiver lieutenant, int index, Path path) {
+        if (isSelf(lieutenant)) {
             throw new IllegalStateException(String.format("%s CANNOT send orders to %s!", this.getName(), lieutenant.getName()));
         }
 
-        Order order = scrambleOrder(getOrder(), index);
+        int count = Math.max(path.getWidth(), index);  // the root path of sendOrder(Receiver, int) has no width
+        Order order = scrambleOrder(relayedOrder(path), index, count, path.getLevel(), path.getRank());
 
         //LOGGER.info("{} sent {} to {}", this.getName(), order, lieutenant.getName());
-        lieutenant.receiveOrder(new Message(order, this));
+        if (metrics != null) {
+            metrics.sent(id);
+        }
+        lieutenant.receiveOrder(new Message(order, this, path));
+    }
+
+    /**
+     * Relays the order received for the parent path to every lieutenant, the lieutenant 'i' with index 'i + 1'.
+     * <p>The orders are computed 64 lieutenants at a time (see {@link TraitorStrategy#orders(Order, int, int, int, int)}).
+     *
+     * @param lieutenants The receivers of the order
+     * @param path The path of the relayed order, ending on this general
+     * @throws IllegalStateException If this general cannot send orders to a lieutenant.
+     */
+    public void sendOrders(List<? extends Receiver> lieutenants, Path path) {
+        Order relayed = relayedOrder(path);
+        for (int first = 0; first < lieutenants.size(); first += Long.SIZE) {
+            long orders = scrambleOrders(relayed, first + 1, lieutenants.size(), path.getLevel(), path.getRank());
+            for (int i = first; i < Math.min(first + Long.SIZE, lieutenants.size()); i++) {
+                Receiver lieutenant = lieutenants.get(i);
+                if (isSelf(lieutenant)) {
+                    throw new IllegalStateException(String.format("%s CANNOT send orders to %s!", this.getName(), lieutenant.getName()));
+                }
+                Order order = (orders & (1L << i)) != 0 ? Order.ATTACK : Order.RETREAT;
+                if (metrics != null) {
+                    metrics.sent(id);
+                }
+                lieutenant.receiveOrder(new Message(order, this, path));
+            }
+        }
     }
 
     /**
-     * Scramble a order if this general is a traitor following the algorithm:
-     * <p>If a general is a traitor, and it has to relay an order O to general Gi, it will relay the value of O if i is odd,
-     * and it will send the opposite of O if i is even.
-     * <p>Note that, in the case of a traitorous commander general, the order being relayed is still just Oc.
-     * FIXME: if the traitorous commander general always send the same order, it would be the same if he was loyal.
+     * Relays the order received for the parent path to the lieutenants of a recursion of OM(m), without allocating:
+     * the primitive form of {@link #sendOrders(List, Path)}, the path given by its level and rank.
+     *
+     * @param generals The generals, indexed by lieutenants
+     * @param lieutenants The indexes of the receivers in generals, the receiver 'i' with index 'i + 1'
+     * @param count The number of receivers, the width of the path
+     * @param level The level of the path of the relayed order
+     * @param rank The rank of the path of the relayed order
+     * @throws IllegalStateException If this general cannot send orders to a lieutenant.
+     */
+    void sendOrders(General[] generals, int[] lieutenants, int count, int level, int rank) {
+        Order relayed = relayedOrder(level, rank / (count + 1));
+        for (int first = 0; first < count; first += Long.SIZE) {
+            long orders = scrambleOrders(relayed, first + 1, count, level, rank);
+            for (int i = first; i < Math.min(first + Long.SIZE, count); i++) {
+                General lieutenant = generals[lieutenants[i]];
+                if (isSelf(lieutenant)) {
+                    throw new IllegalStateException(String.format("%s CANNOT send orders to %s!", this.getName(), lieutenant.getName()));
+                }
+                Order order = (orders & (1L << i)) != 0 ? Order.ATTACK : Order.RETREAT;
+                if (metrics != null) {
+                    metrics.sent(id);
+                }
+                lieutenant.receiveOrder(this, level, rank, order);
+            }
+        }
+    }
+
+    /**
+     * Delivers the orders sent by {@link #sendOrders(Courier, int[], int, int, int)}, e.g. through a simulated network.
+     */
+    interface Courier {
+
+        /**
+         * Delivers a order to a lieutenant.
+         *
+         * @param lieutenant The lieutenant, as given to sendOrders
+         * @param level The level of the path of the order
+         * @param rank The rank of the path of the order
+         * @param order The sent order
+         */
+        void deliver(int lieutenant, int level, int rank, Order order);
+    }
+
+    /**
+     * Relays the order received for the parent path to lieutenants reached through a courier, without allocating:
+     * the form of {@link #sendOrders(General[], int[], int, int, int)} for lieutenants that do not receive the orders
+     * at once.
+     *
+     * @param courier The courier delivering the orders
+     * @param lieutenants The receivers, as known by the courier, the receiver 'i' with index 'i + 1'
+     * @param count The number of receivers, the width of the path
+     * @param level The level of the path of the relayed order
+     * @param rank The rank of the path of the relayed order
+     */
+    void sendOrders(Courier courier, int[] lieutenants, int count, int level, int rank) {
+        Order relayed = relayedOrder(level, rank / (count + 1));
+        for (int first = 0; first < count; first += Long.SIZE) {
+            long orders = scrambleOrders(relayed, first + 1, count, level, rank);
+            for (int i = first; i < Math.min(first + Long.SIZE, count); i++) {
+                if (metrics != null) {
+                    metrics.sent(id);
+                }
+                courier.deliver(lieutenants[i], level, rank, (orders & (1L << i)) != 0 ? Order.ATTACK : Order.RETREAT);
+            }
+        }
+    }
+
+    /**
+     * Gets the order to be relayed on a path: the order received for the parent path, or RETREAT if no order was
+     * received.
+     */
+    private Order relayedOrder(Path path) {
+        return relayedOrder(path.getLevel(), path.getRank() / (path.getWidth() + 1));
+    }
+
+    private Order relayedOrder(int level, int parentRank) {
+        if (level <= 1) {
+            return getOrder();
+        }
+        Order order = tree != null ? tree.get(level - 1, parentRank) : null;
+        return order != null ? order : Order.RETREAT;
+    }
+
+    /**
+     * Scramble a order if this general is a traitor, following its {@link TraitorStrategy}.
      *
      * @param order The original order
-     * @param index The index of the lieutenant receiving the order (used to scramble the order when the general is traitor)
+     * @param index The index of the lieutenant receiving the order, from 1 to count
+     * @param count The number of lieutenants receiving the order
+     * @param level The level of the path of the order
+     * @param rank The rank of the path of the order, or 0 for algorithms without information trees
      * @return The resultant order
      */
-    private Order scrambleOrder(Order order, int index) {
-        if (/*!isCommander() &&*/ !loyal && index % 2 != 0) {                   // if this /*is not commander and*/ is a traitor and index is even,
-            return Order.ATTACK.equals(order) ? Order.RETREAT : Order.ATTACK;   // invert the order
+    Order scrambleOrder(Order order, int index, int count, int level, int rank) {
+        return loyal ? order : strategy.order(order, index, count, level, rank);
+    }
+
+    /**
+     * Gets the orders {@link #scrambleOrder(Order, int, int, int, int)} sends to up to 64 consecutive lieutenants.
+     *
+     * @param index The index of the lieutenant of the lowest bit
+     * @return A mask with the bit 'i' set when the lieutenant 'index + i' gets ATTACK
+     */
+    long scrambleOrders(Order order, int index, int count, int level, int rank) {
+        if (loyal) {
+            return Order.ATTACK.equals(order) ? -1L : 0L;
         }
-        return order;
+        return strategy.orders(order, index, count, level, rank);
     }
 
     /**
@@ -100,15 +343,62 @@ public class General implements Officer {
      */
     @Override
     public void receiveOrder(Message message) {
-        if (Objects.equals(name, message.getSender().getName())) {
+        if (isSelf(message.getSender())) {
             throw new IllegalStateException(String.format("%s CANNOT receive orders from %s!", this.getName(), message.getSender().getName()));
         }
 
-        LOGGER.info("{} received {} from {}", this.getName(), message.getOrder(), message.getSender().getName());
-        if (orders.isEmpty()) { // first order from commander [OM(m), step 2]
+        Path path = message.getPath();
+        if (MESSAGE_LOGGING) {
+            LOGGER.info("{} received {} from {} at {}", this.getName(), message.getOrder(), message.getSender().getName(), path);
+        }
+        if (recorder != null) {
+            recorder.record(message.getSender().getId(), id, path, message.getOrder());
+        }
+        if (metrics != null) {
+            metrics.received(id, path.getLevel());
+        }
+        if (path.isRoot()) { // order from commander [OM(m), step 2]
             setOrder(message.getOrder());
+            return;
+        }
+        if (tree == null) {
+            tree = new InformationTree(path.getWidth() + path.getLevel());
+        }
+        tree.set(path, message.getOrder());
+    }
+
+    /**
+     * Receives a order without a Message: the primitive form of {@link #receiveOrder(Message)}, used by the OM(m)
+     * recursion kernel on generals whose information tree is prepared.
+     *
+     * @param sender The general relaying the order.
+     * @param level The level of the path of the order.
+     * @param rank The rank of the path of the order.
+     * @param order The received order.
+     * @throws IllegalStateException If this general cannot receive orders from the sender, or is not prepared.
+     */
+    void receiveOrder(General sender, int level, int rank, Order order) {
+        if (isSelf(sender)) {
+            throw new IllegalStateException(String.format("%s CANNOT receive orders from %s!", this.getName(), sender.getName()));
+        }
+
+        if (MESSAGE_LOGGING && LOGGER.isInfoEnabled()) {
+            LOGGER.info("{} received {} from {} at level {}, rank {}", this.getName(), order, sender.getName(), level, rank);
+        }
+        if (recorder != null) {
+            recorder.record(sender.getId(), id, level, rank, order);
+        }
+        if (metrics != null) {
+            metrics.received(id, level);
         }
-        orders.put(message.getSender().getName(), message.getOrder());
+        if (level == 0) { // order from commander [OM(m), step 2]
+            setOrder(order);
+            return;
+        }
+        if (tree == null) {
+            throw new IllegalStateException(String.format("%s is not prepared to receive orders of level %d", this.getName(), level));
+        }
+        tree.set(level, rank, order);
     }
 
     /**
@@ -118,24 +408,30 @@ public class General implements Officer {
      */
     public Order executeOrder() {
         Order order = getOrder();
-        LOGGER.info("{} executed {}", this.getName(), order);
+        if (MESSAGE_LOGGING) {
+            LOGGER.info("{} executed {}", this.getName(), order);
+        }
         return order;
     }
 
     /**
-     * Calculates the majority of received orders.
+     * Calculates the majority of received orders, resolving the information tree bottom-up.
      *
      * @return The selected order.
      */
     public Order majorityOrder() {
         // calculates the majority order
-        Map<Order, Long> orderCounter = this.orders.values().stream()
-                .collect(Collectors.groupingBy(s -> s, Collectors.counting()));
-
-        Order order = orderCounter.getOrDefault(Order.ATTACK, 0L) > orderCounter.getOrDefault(Order.RETREAT, 0L)
-                ? Order.ATTACK : Order.RETREAT;
+        Order order = tree != null ? tree.resolve(this.order) : this.order;
+        if (order == null) {
+            order = Order.RETREAT;
+        }
+        if (metrics != null) {
+            metrics.majorities(tree != null ? tree.getMajorities() : 1);
+        }
 
-        LOGGER.info("{} calculated majority {} for orders {}", this.getName(), order, orders);
+        if (MESSAGE_LOGGING) {
+            LOGGER.info("{} calculated majority {} for orders {}", this.getName(), order, tree);
+        }
         setOrder(order); // majority order
         return order;
     }
@@ -143,9 +439,11 @@ public class General implements Officer {
     @Override
     public String toString() {
         return "General{" +
-                "name='" + name + '\'' +
+                "id=" + id +
+                ", name='" + name + '\'' +
                 ", loyal=" + loyal +
-                ", orders=" + orders +
+                ", strategy=" + strategy +
+                ", tree=" + tree +
                 ", order=" + order +
                 '}';
     }
@@ -0,0 +1,112 @@
+package com.byzantinegenerals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Assigns dense ids to the generals of a execution and keeps which of them are traitors.
+ * <p>The id of a general is its position in the list of names, so generals and traitors are looked up by index, and
+ * names are only kept for display. Names must be unique.
+ */
+public class GeneralRegistry {
+
+    private final String[] names;
+    private final Map<String, Integer> ids;
+    private final BitSet traitors;
+
+    /**
+     * Constructs the registry, all generals loyal.
+     *
+     * @param names The names of the generals, the first one being the commander.
+     * @throws IllegalArgumentException If a name is repeated.
+     */
+    public GeneralRegistry(List<String> names) {
+        this.names = names.toArray(new String[0]);
+        this.ids = new HashMap<>(names.size() * 2);
+        this.traitors = new BitSet(names.size());
+        for (int id = 0; id < this.names.length; id++) {
+            if (ids.put(this.names[id], id) != null) {
+                throw new IllegalArgumentException("Duplicated general name: " + this.names[id]);
+            }
+        }
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param name The name of a general.
+     * @return The id of the general.
+     * @throws IllegalArgumentException If there is no general with the name.
+     */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown general: " + name);
+        }
+        return id;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public boolean isTraitor(int id) {
+        return traitors.get(id);
+    }
+
+    public void setTraitor(int id, boolean traitor) {
+        traitors.set(id, traitor);
+    }
+
+    /**
+     * @return A copy of the set of traitor ids.
+     */
+    public BitSet getTraitors() {
+        return (BitSet) traitors.clone();
+    }
+
+    /**
+     * Selects new traitors uniformly at random (Floyd's sampling), drawing one random number per traitor.
+     *
+     * @param count The number of traitors.
+     * @param random The source of randomness.
+     * @throws IllegalArgumentException If there are less generals than traitors.
+     */
+    public void sampleTraitors(int count, Random random) {
+        if (count < 0 || count > names.length) {
+            throw new IllegalArgumentException(String.format("Cannot select %d traitors among %d generals", count, names.length));
+        }
+        traitors.clear();
+        for (int j = names.length - count; j < names.length; j++) {
+            int id = random.nextInt(j + 1);
+            traitors.set(traitors.get(id) ? j : id);
+        }
+    }
+
+    /**
+     * Creates the generals, in id order.
+     *
+     * @return A new General for each id.
+     */
+    public List<General> createGenerals() {
+        List<General> generals = new ArrayList<>(names.length);
+        for (int id = 0; id < names.length; id++) {
+            generals.add(new General(id, names[id], !traitors.get(id)));
+        }
+        return generals;
+    }
+
+    @Override
+    public String toString() {
+        return "GeneralRegistry{" +
+                "generals=" + names.length +
+                ", traitors=" + traitors +
+                '}';
+    }
+}
@@ -0,0 +1,30 @@
+package com.byzantinegenerals;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bit plane on the heap, updated with compare-and-set.
+ */
+class HeapBitPlane implements BitPlane {
+
+    private final AtomicLongArray words;
+
+    HeapBitPlane(int words) {
+        this.words = new AtomicLongArray(words);
+    }
+
+    @Override
+    public long get(int word) {
+        return words.get(word);
+    }
+
+    @Override
+    public void or(int word, long mask) {
+        words.accumulateAndGet(word, mask, (value, bits) -> value | bits);
+    }
+
+    @Override
+    public void and(int word, long mask) {
+        words.accumulateAndGet(word, mask, (value, bits) -> value & bits);
+    }
+}
@@ -0,0 +1,221 @@
+package com.byzantinegenerals;
+
+/**
+ * Exponential information gathering (EIG) tree of a lieutenant.
+ * <p>Stores the order received for every relay path, one level per recursion of OM(m). Each level is a pair of bit
+ * planes indexed by path rank: a 'present' bit (some order was received) and an 'attack' bit (the received order).
+ * The children of a node are a contiguous range of ranks, so their majority is a population count of each plane.
+ * The root level (the order received from the commander) is kept by the General itself.
+ * <p>Bits are set atomically, so disjoint sub-trees of OM(m) can be received concurrently once the levels are
+ * allocated. The planes are allocated by a {@link TreeStorage}, on the heap, off-heap or on a memory-mapped file.
+ */
+class InformationTree {
+
+    private final int lieutenants;
+    private final TreeStorage storage;
+    private final BitPlane[] present;
+    private final BitPlane[] attack;
+    private long majorities;
+
+    /**
+     * Constructs an empty tree, with its levels on the heap.
+     *
+     * @param lieutenants The number of lieutenants receiving the commander's order.
+     */
+    InformationTree(int lieutenants) {
+        this(lieutenants, TreeStorage.HEAP);
+    }
+
+    /**
+     * Constructs an empty tree.
+     *
+     * @param lieutenants The number of lieutenants receiving the commander's order.
+     * @param storage The storage of the levels.
+     */
+    InformationTree(int lieutenants, TreeStorage storage) {
+        this.lieutenants = lieutenants;
+        this.storage = storage;
+        this.present = new BitPlane[lieutenants + 2];
+        this.attack = new BitPlane[lieutenants + 2];
+    }
+
+    /**
+     * Calculates the number of paths of a level.
+     *
+     * @param lieutenants The number of lieutenants receiving the commander's order.
+     * @param level The tree level.
+     * @return The number of nodes of the level.
+     */
+    static long size(int lieutenants, int level) {
+        long size = 1;
+        for (int k = 0; k < level; k++) {
+            size *= lieutenants - k;
+        }
+        return size;
+    }
+
+    /**
+     * Allocates all levels up to depth, so they do not grow while orders are received.
+     *
+     * @param depth The deepest level.
+     */
+    void allocate(int depth) {
+        for (int level = 1; level <= Math.min(depth, lieutenants); level++) {
+            level(level);
+        }
+    }
+
+    private void level(int level) {
+        if (present[level] == null) {
+            long size = size(lieutenants, level);
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalStateException(String.format("Level %d has too many nodes (%d)", level, size));
+            }
+            int words = (int) ((size + 63) >>> 6);
+            present[level] = storage.allocate(words);
+            attack[level] = storage.allocate(words);
+        }
+    }
+
+    /**
+     * Stores the order received for a path.
+     *
+     * @param path The relay path, not the root.
+     * @param order The received order.
+     */
+    void set(Path path, Order order) {
+        set(path.getLevel(), path.getRank(), order);
+    }
+
+    /**
+     * Stores the order received for a path, given by its level and rank.
+     */
+    void set(int level, int rank, Order order) {
+        level(level);
+        long bit = 1L << rank;
+        if (Order.ATTACK.equals(order)) {
+            attack[level].or(rank >>> 6, bit);
+        } else {
+            attack[level].and(rank >>> 6, ~bit);
+        }
+        present[level].or(rank >>> 6, bit);
+    }
+
+    /**
+     * @param path The relay path, not the root.
+     * @return The order received for the path, or null if no order was received.
+     */
+    Order get(Path path) {
+        return get(path.getLevel(), path.getRank());
+    }
+
+    /**
+     * @return The order received for the path of a level and rank, or null if no order was received.
+     */
+    Order get(int level, int rank) {
+        if (present[level] == null || (present[level].get(rank >>> 6) & (1L << rank)) == 0) {
+            return null;
+        }
+        return (attack[level].get(rank >>> 6) & (1L << rank)) != 0 ? Order.ATTACK : Order.RETREAT;
+    }
+
+    /**
+     * Resolves the tree bottom-up: each node is replaced by the majority of its own order and the resolved orders of
+     * its children, one level at a time. Resolved levels are released.
+     *
+     * @param root The order received from the commander, or null if none was received.
+     * @return The majority order for the root, or null if no order was received at all.
+     */
+    Order resolve(Order root) {
+        for (int level = lieutenants; level >= 1; level--) {
+            if (present[level + 1] == null) {
+                continue;
+            }
+            level(level);
+            int fanout = lieutenants - level;
+            long nodes = size(lieutenants, level);
+            for (int rank = 0; rank < nodes; rank++) {
+                Order order = majority(get(level, rank), level + 1, rank * fanout, fanout);
+                if (order != null) {
+                    set(level, rank, order);
+                }
+            }
+            release(level + 1);
+        }
+
+        Order order = majority(root, 1, 0, lieutenants);
+        release(1);
+        return order;
+    }
+
+    /**
+     * Releases the planes of a resolved level to the storage.
+     */
+    private void release(int level) {
+        if (present[level] != null) {
+            storage.release(present[level]);
+            storage.release(attack[level]);
+            present[level] = null;
+            attack[level] = null;
+        }
+    }
+
+    /**
+     * Calculates the majority of a order and the orders of a range of children, counting the bits of the planes.
+     */
+    private Order majority(Order order, int childLevel, int first, int fanout) {
+        majorities++;
+        int attacks = Order.ATTACK.equals(order) ? 1 : 0;
+        int votes = order != null ? 1 : 0;
+        if (present[childLevel] != null) {
+            votes += bitCount(present[childLevel], first, first + fanout);
+            attacks += bitCount(attack[childLevel], first, first + fanout);
+        }
+        if (votes == 0) {
+            return null;
+        }
+        return attacks > votes - attacks ? Order.ATTACK : Order.RETREAT;
+    }
+
+    /**
+     * Counts the bits set in the range [from, to) of a plane.
+     */
+    static int bitCount(BitPlane words, int from, int to) {
+        if (from >= to) {
+            return 0;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (first == last) {
+            return Long.bitCount(words.get(first) & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words.get(first) & firstMask);
+        for (int word = first + 1; word < last; word++) {
+            count += Long.bitCount(words.get(word));
+        }
+        return count + Long.bitCount(words.get(last) & lastMask);
+    }
+
+    /**
+     * @return The number of majorities calculated while resolving the tree.
+     */
+    long getMajorities() {
+        return majorities;
+    }
+
+    @Override
+    public String toString() {
+        int depth = 0;
+        for (int level = 1; level <= lieutenants; level++) {
+            if (present[level] != null) {
+                depth = level;
+            }
+        }
+        return "InformationTree{" +
+                "lieutenants=" + lieutenants +
+                ", depth=" + depth +
+                '}';
+    }
+}
@@ -0,0 +1,331 @@
+package com.byzantinegenerals;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Interactive consistency: every general sends its own value with OM(m), so every loyal general agrees on the vector
+ * of the values of all generals.
+ * <p>Instead of n executions of OM(m), the n instances run at once, in m + 1 shared rounds. The paths of all instances
+ * are chains of generals positions, so a path names the same generals in every instance (a instance commander is
+ * never on its own paths). Each path of a general's information tree holds a column: a bit per instance, on the
+ * present and attack planes, so up to 64 generals are supported. In a round, a general sends each other general a
+ * single batch with the columns of every path it relays, for all instances at once, and the majorities are computed
+ * column-wise with bit-sliced counters, 64 instances at a time.
+ * <p>The decisions are those of n executions of {@link AlgorithmOMm}, the general 'c' being the commander of the
+ * instance 'c', followed by the other generals in order: traitors scramble the orders of each instance with the path
+ * and the index they have in it.
+ */
+public class InteractiveConsistency {
+
+    private final List<General> generals;
+    private final int m;
+    private final int n;
+
+    // the generals (as a bitmask of positions) on each path of each level
+    private long[][] members;
+
+    // the columns of each general's information tree, root level included, by general and level
+    private long[][][] present;
+    private long[][][] attack;
+
+    private long batches;
+    private long orders;
+    private long majorities;
+
+    /**
+     * Constructs the instances.
+     *
+     * @param generals The generals, each one commanding the instance of its position.
+     * @param m The recursion level.
+     * @throws IllegalArgumentException If there are more than 64 generals, or less than m + 2.
+     */
+    public InteractiveConsistency(List<General> generals, int m) {
+        if (generals.size() > Long.SIZE || m < 0 || generals.size() < m + 2) {
+            throw new IllegalArgumentException(String.format("Interactive consistency of OM(%d) needs %d to %d generals, not %d",
+                    m, m + 2, Long.SIZE, generals.size()));
+        }
+        this.generals = generals;
+        this.m = m;
+        this.n = generals.size();
+    }
+
+    /**
+     * Runs the n instances of OM(m).
+     *
+     * @param values The value of each general, sent as the commander of its instance.
+     * @return The agreement vectors: the element [g][c] is the order the general 'g' decided for the instance 'c', the
+     * own value of 'g' for 'c == g'.
+     * @throws IllegalArgumentException If there is not a value per general.
+     */
+    public Order[][] execute(List<Order> values) {
+        if (values.size() != n) {
+            throw new IllegalArgumentException(String.format("Expected %d values, not %d", n, values.size()));
+        }
+        batches = 0;
+        orders = 0;
+        majorities = 0;
+
+        members = new long[m + 1][];
+        members[0] = new long[]{0L};
+        present = new long[n][m + 1][];
+        attack = new long[n][m + 1][];
+        for (int level = 0; level <= m; level++) {
+            int size = (int) InformationTree.size(n, level);
+            if (level > 0) {
+                members[level] = new long[size];
+                int fanout = n - level + 1;
+                for (int parent = 0; parent < members[level - 1].length; parent++) {
+                    long others = ~members[level - 1][parent] & mask(n);
+                    for (int i = 0; i < fanout; i++, others &= others - 1) {
+                        members[level][parent * fanout + i] = members[level - 1][parent] | Long.lowestOneBit(others);
+                    }
+                }
+            }
+            for (int general = 0; general < n; general++) {
+                present[general][level] = new long[size];
+                attack[general][level] = new long[size];
+            }
+        }
+
+        // (1) Every commander sends his value to the other generals
+        for (int commander = 0; commander < n; commander++) {
+            General general = generals.get(commander);
+            for (int receiver = 0; receiver < n; receiver++) {
+                if (receiver != commander) {
+                    int index = (receiver < commander ? receiver : receiver - 1) + 1;
+                    Order order = general.scrambleOrder(values.get(commander), index, n - 1, 0, 0);
+                    present[receiver][0][0] |= 1L << commander;
+                    if (Order.ATTACK.equals(order)) {
+                        attack[receiver][0][0] |= 1L << commander;
+                    }
+                    batches++;
+                    orders++;
+                }
+            }
+        }
+
+        // (2) In round 'k + 1', every general relays the columns of level 'k' to each other general in a batch
+        long[] batchPresent = new long[0];
+        long[] batchAttack = new long[0];
+        for (int level = 0; level < m; level++) {
+            int size = members[level].length;
+            if (batchPresent.length < size) {
+                batchPresent = new long[size];
+                batchAttack = new long[size];
+            }
+            for (int sender = 0; sender < n; sender++) {
+                for (int receiver = 0; receiver < n; receiver++) {
+                    if (receiver != sender && batch(sender, receiver, level, batchPresent, batchAttack)) {
+                        receive(sender, receiver, level, batchPresent, batchAttack);
+                        batches++;
+                    }
+                }
+            }
+        }
+
+        // (3) Every general uses the majority of each column
+        Order[][] decisions = new Order[n][n];
+        for (int general = 0; general < n; general++) {
+            for (int level = m - 1; level >= 0; level--) {
+                resolve(general, level);
+            }
+            long attacks = attack[general][0][0];
+            for (int commander = 0; commander < n; commander++) {
+                if (commander == general) {
+                    decisions[general][commander] = values.get(general);
+                } else {
+                    decisions[general][commander] = (attacks & 1L << commander) != 0 ? Order.ATTACK : Order.RETREAT;
+                }
+            }
+        }
+        members = null;
+        present = null;
+        attack = null;
+        return decisions;
+    }
+
+    /**
+     * Fills the batch of the columns a sender relays to a receiver, for the paths of a level.
+     *
+     * @return False if the batch is empty.
+     */
+    private boolean batch(int sender, int receiver, int level, long[] batchPresent, long[] batchAttack) {
+        General general = generals.get(sender);
+        long[] senderPresent = present[sender][level];
+        long[] senderAttack = attack[sender][level];
+        long instances = ~(1L << receiver);  // the receiver commands its own instance
+        boolean empty = true;
+        for (int rank = 0; rank < senderPresent.length; rank++) {
+            long relayed = senderPresent[rank] & instances;
+            if ((members[level][rank] & 1L << receiver) != 0) {
+                relayed = 0;
+            }
+            batchPresent[rank] = relayed;
+            if (relayed == 0) {
+                batchAttack[rank] = 0;
+                continue;
+            }
+            empty = false;
+            orders += Long.bitCount(relayed);
+            if (general.isLoyal()) {
+                batchAttack[rank] = senderAttack[rank] & relayed;
+            } else {
+                batchAttack[rank] = scramble(general, sender, receiver, level, rank, relayed, senderAttack[rank]);
+            }
+        }
+        return !empty;
+    }
+
+    /**
+     * Scrambles the orders a traitor relays on a path, instance by instance, with the path and receiver index of each
+     * instance.
+     */
+    private long scramble(General traitor, int sender, int receiver, int level, int rank, long instances, long attacks) {
+        // the chain of the relayed path, the sender last
+        int[] chain = new int[level + 1];
+        int ancestor = rank;
+        for (int k = level; k >= 1; k--) {
+            int radix = n - k + 1;
+            chain[k - 1] = ancestor % radix;
+            ancestor /= radix;
+        }
+        long used = 0;
+        for (int k = 0; k < level; k++) {
+            chain[k] = nth(~used & mask(n), chain[k]);
+            used |= 1L << chain[k];
+        }
+        chain[level] = sender;
+        used |= 1L << sender;
+
+        long scrambled = 0;
+        for (long set = instances; set != 0; set &= set - 1) {
+            int commander = Long.numberOfTrailingZeros(set);
+            long lieutenants = mask(n) & ~(1L << commander);
+            int positionalRank = 0;
+            long remaining = lieutenants;
+            for (int k = 0; k <= level; k++) {
+                positionalRank = positionalRank * Long.bitCount(remaining) + Long.bitCount(remaining & ((1L << chain[k]) - 1));
+                remaining &= ~(1L << chain[k]);
+            }
+            int index = Long.bitCount(remaining & ((1L << receiver) - 1)) + 1;
+            Order order = (attacks & 1L << commander) != 0 ? Order.ATTACK : Order.RETREAT;
+            if (Order.ATTACK.equals(traitor.scrambleOrder(order, index, Long.bitCount(remaining), level + 1, positionalRank))) {
+                scrambled |= 1L << commander;
+            }
+        }
+        return scrambled;
+    }
+
+    /**
+     * Receives a batch, storing each column on the path relayed by the sender.
+     */
+    private void receive(int sender, int receiver, int level, long[] batchPresent, long[] batchAttack) {
+        long[] receiverPresent = present[receiver][level + 1];
+        long[] receiverAttack = attack[receiver][level + 1];
+        int fanout = n - level;
+        long below = (1L << sender) - 1;
+        for (int rank = 0; rank < members[level].length; rank++) {
+            if (batchPresent[rank] != 0) {
+                int child = rank * fanout + Long.bitCount(~members[level][rank] & below);
+                receiverPresent[child] = batchPresent[rank];
+                receiverAttack[child] = batchAttack[rank];
+            }
+        }
+    }
+
+    /**
+     * Replaces each column of a level by the majority of its own orders and the orders of its children, counting the
+     * votes of 64 instances at once with bit-sliced counters.
+     */
+    private void resolve(int general, int level) {
+        long[] nodePresent = present[general][level];
+        long[] nodeAttack = attack[general][level];
+        long[] childPresent = present[general][level + 1];
+        long[] childAttack = attack[general][level + 1];
+        int fanout = n - level;
+        long[] votes = new long[8];
+        long[] attacks = new long[8];
+        for (int rank = 0; rank < nodePresent.length; rank++) {
+            majorities++;
+            Arrays.fill(votes, 0);
+            Arrays.fill(attacks, 0);
+            add(votes, nodePresent[rank]);
+            add(attacks, nodeAttack[rank]);
+            for (int child = rank * fanout; child < (rank + 1) * fanout; child++) {
+                add(votes, childPresent[child]);
+                add(attacks, childAttack[child]);
+            }
+
+            // ATTACK if 2 * attacks > votes, compared from the highest bit
+            long greater = 0;
+            long equal = -1L;
+            long voted = 0;
+            for (int bit = votes.length - 1; bit >= 0; bit--) {
+                long doubled = bit > 0 ? attacks[bit - 1] : 0;
+                greater |= equal & doubled & ~votes[bit];
+                equal &= ~(doubled ^ votes[bit]);
+                voted |= votes[bit];
+            }
+            nodePresent[rank] |= voted;
+            nodeAttack[rank] = greater & voted | nodeAttack[rank] & ~voted;
+        }
+        present[general][level + 1] = null;
+        attack[general][level + 1] = null;
+    }
+
+    /**
+     * Adds a bit per instance to a bit-sliced counter.
+     */
+    private static void add(long[] counter, long bits) {
+        for (int bit = 0; bits != 0; bit++) {
+            long carry = counter[bit] & bits;
+            counter[bit] ^= bits;
+            bits = carry;
+        }
+    }
+
+    /**
+     * @return The position of the n-th bit set.
+     */
+    private static int nth(long bits, int n) {
+        for (int i = 0; i < n; i++) {
+            bits &= bits - 1;
+        }
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    private static long mask(int bits) {
+        return bits == Long.SIZE ? -1L : (1L << bits) - 1;
+    }
+
+    /**
+     * @return The batches sent in the last execution, each one from a general to another in a round.
+     */
+    public long getBatches() {
+        return batches;
+    }
+
+    /**
+     * @return The orders carried by the batches of the last execution, as many as the messages of n executions of
+     * OM(m).
+     */
+    public long getOrders() {
+        return orders;
+    }
+
+    /**
+     * @return The columns resolved in the last execution, each one the majorities of up to 64 instances.
+     */
+    public long getMajorities() {
+        return majorities;
+    }
+
+    @Override
+    public String toString() {
+        return "InteractiveConsistency{" +
+                "generals=" + generals +
+                ", m=" + m +
+                '}';
+    }
+}
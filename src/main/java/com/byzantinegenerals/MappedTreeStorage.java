@@ -0,0 +1,113 @@
+package com.byzantinegenerals;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Allocates the bit planes on a temporary memory-mapped file, so the levels are paged by the operating system instead
+ * of living on the heap.
+ * <p>Each plane is a region of the file. The regions of released planes are cleared and reused by the next allocations
+ * of the same size, so a storage shared by many executions only grows to the planes they use at once; new regions are
+ * mapped at the end of the file. The file is deleted when the storage is closed. Planes remain valid after closing,
+ * until they are collected.
+ */
+public class MappedTreeStorage implements TreeStorage, Closeable {
+
+    private final File file;
+    private final RandomAccessFile randomAccessFile;
+    private final FileChannel channel;
+    private final Map<BitPlane, ByteBuffer> planes = new WeakHashMap<>();     // planes never released are collected
+    private final Map<Integer, Deque<ByteBuffer>> released = new HashMap<>();
+    private long size;
+
+    /**
+     * Constructs the storage on a new temporary file.
+     *
+     * @param directory The directory of the file, or null for the default temporary directory.
+     * @throws IOException If the file cannot be created.
+     */
+    public MappedTreeStorage(File directory) throws IOException {
+        this.file = File.createTempFile("information-tree", ".bin", directory);
+        this.file.deleteOnExit();
+        this.randomAccessFile = new RandomAccessFile(file, "rw");
+        this.channel = randomAccessFile.getChannel();
+    }
+
+    /**
+     * @throws IllegalStateException If the storage is closed.
+     * @throws UncheckedIOException If the region cannot be mapped.
+     */
+    @Override
+    public synchronized BitPlane allocate(int words) {
+        if (!channel.isOpen()) {
+            throw new IllegalStateException("Storage is closed: " + file);
+        }
+        Deque<ByteBuffer> regions = released.get(words);
+        ByteBuffer region = regions != null ? regions.poll() : null;
+        if (region != null) {
+            for (int word = 0; word < words; word++) {
+                region.putLong(word << 3, 0L);
+            }
+        } else {
+            try {
+                long bytes = (long) words << 3;
+                region = channel.map(FileChannel.MapMode.READ_WRITE, size, bytes).order(ByteOrder.nativeOrder());
+                size += bytes;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot map " + file, e);
+            }
+        }
+        BufferBitPlane plane = new BufferBitPlane(region);
+        planes.put(plane, region);
+        return plane;
+    }
+
+    /**
+     * Releases the region of a plane, to be reused by a allocation of the same size. Planes not allocated by this
+     * storage, or already released, are ignored.
+     */
+    @Override
+    public synchronized void release(BitPlane plane) {
+        ByteBuffer region = planes.remove(plane);
+        if (region != null) {
+            released.computeIfAbsent(region.capacity() >>> 3, words -> new ArrayDeque<>()).push(region);
+        }
+    }
+
+    /**
+     * @return The bytes mapped so far, the size of the file.
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            randomAccessFile.close();
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MappedTreeStorage{" +
+                "file=" + file +
+                ", size=" + size +
+                '}';
+    }
+}
@@ -0,0 +1,236 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Algorithm OM(m), reusing the results of identical sub-problems.
+ * <p>A sub-problem OM(k) is fixed by its commander, its lieutenants, the order relayed by the commander and which of
+ * them are traitors. Its result is the order decided by each lieutenant (step 3), kept as bitmasks indexed by the
+ * generals position, so up to 64 generals are supported. When the commander and every lieutenant are loyal, all of
+ * them decide the relayed order without recursion. Other results are kept in a bounded LRU cache.
+ * <p>Orders are not exchanged as messages: each lieutenant only gets its decided order. As sub-problems are shared
+ * between paths, the traitors strategies must not be path sensitive (see {@link TraitorStrategy#isPathSensitive()}).
+ * The cache is kept between executions with the same recursion level and strategy at every position, and cleared
+ * otherwise.
+ */
+public class MemoizedAlgorithmOMm implements Algorithm {
+
+    private static final Logger LOGGER = LogManager.getLogger(MemoizedAlgorithmOMm.class);
+
+    public static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    private final Map<SubProblem, Long> cache;
+    private long hits;
+    private long misses;
+    private long loyal;
+
+    private General[] generals;
+    private long traitors;
+    private int depth;
+
+    // the strategy of each position (null if loyal) of the cached sub-problems
+    private List<TraitorStrategy> strategies;
+
+    /**
+     * Constructs the algorithm with a cache of {@link #DEFAULT_CACHE_SIZE} entries.
+     */
+    public MemoizedAlgorithmOMm() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs the algorithm.
+     *
+     * @param cacheSize The maximum number of cached sub-problems, the least recently used are evicted.
+     */
+    public MemoizedAlgorithmOMm(int cacheSize) {
+        this.cache = new LinkedHashMap<SubProblem, Long>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SubProblem, Long> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException If there are more than 64 generals, or a traitor strategy is path sensitive.
+     */
+    @Override
+    public void execute(General commander, List<General> lieutenants, int m) {
+        if (lieutenants.size() >= Long.SIZE) {
+            throw new IllegalArgumentException(String.format("Memoized OM(m) supports up to %d generals", Long.SIZE));
+        }
+
+        generals = new General[lieutenants.size() + 1];
+        generals[0] = commander;
+        traitors = commander.isLoyal() ? 0 : 1;
+        long set = 0;
+        for (int i = 1; i < generals.length; i++) {
+            generals[i] = lieutenants.get(i - 1);
+            traitors |= generals[i].isLoyal() ? 0 : 1L << i;
+            set |= 1L << i;
+        }
+        for (General general : generals) {
+            if (!general.isLoyal() && general.getStrategy().isPathSensitive()) {
+                throw new IllegalArgumentException("Memoized OM(m) does not support path sensitive strategies: " + general.getStrategy());
+            }
+        }
+        List<TraitorStrategy> strategiesI = new ArrayList<>(generals.length);
+        for (General general : generals) {
+            strategiesI.add(general.isLoyal() ? null : general.getStrategy());
+        }
+        if (m != depth || !strategiesI.equals(strategies)) {
+            cache.clear();
+            strategies = strategiesI;
+        }
+        depth = m;
+        hits = 0;
+        misses = 0;
+        loyal = 0;
+
+        long attacks = algorithmOMm(0, set, m, commander.getOrder());
+        for (int i = 1; i < generals.length; i++) {
+            generals[i].setOrder((attacks & (1L << i)) != 0 ? Order.ATTACK : Order.RETREAT);
+        }
+        LOGGER.info("Memoized m({}): {} cache hits, {} misses, {} loyal sub-problems", m, hits, misses, loyal);
+    }
+
+    /**
+     * OM(m) reaches agreement with at most 'm' traitors among more than '3m' generals [Theorem 1].
+     */
+    @Override
+    public boolean tolerates(int generals, int traitors, int m) {
+        return traitors <= m && generals > 3 * m;
+    }
+
+    /**
+     * Recursive Algorithm OM(m) over bitmasks.
+     *
+     * @param commander Position of the commander
+     * @param lieutenants Bitmask with the positions of the lieutenants
+     * @param m recursive level
+     * @param order The order relayed by the commander
+     * @return Bitmask with the positions of the lieutenants deciding ATTACK
+     */
+    private long algorithmOMm(int commander, long lieutenants, int m, Order order) {
+        long traitorsI = traitors & (lieutenants | 1L << commander);
+        if (traitorsI == 0) {
+            loyal++;
+            return Order.ATTACK.equals(order) ? lieutenants : 0;
+        }
+
+        SubProblem subProblem = new SubProblem(commander, lieutenants, m, order, traitorsI);
+        Long cached = cache.get(subProblem);
+        if (cached != null) {
+            hits++;
+            return cached;
+        }
+        misses++;
+
+        // (1) The commander sends his value to every lieutenant.
+        long received = 0;
+        int index = 1;
+        int count = Long.bitCount(lieutenants);
+        for (long set = lieutenants; set != 0; set &= set - 1) {
+            int lieutenant = Long.numberOfTrailingZeros(set);
+            if (Order.ATTACK.equals(generals[commander].scrambleOrder(order, index++, count, depth - m, 0))) {
+                received |= 1L << lieutenant;
+            }
+        }
+
+        long attacks = received;
+        if (m > 0) {
+            // (2) Lieutenant i acts as the commander in Algorithm OM(m - 1) to send the value vi.
+            int[] votes = new int[generals.length];
+            for (long set = received; set != 0; set &= set - 1) {
+                votes[Long.numberOfTrailingZeros(set)]++;
+            }
+            for (long set = lieutenants; set != 0; set &= set - 1) {
+                int commanderI = Long.numberOfTrailingZeros(set);
+                Order orderI = (received & (1L << commanderI)) != 0 ? Order.ATTACK : Order.RETREAT;
+                for (long setI = algorithmOMm(commanderI, lieutenants & ~(1L << commanderI), m - 1, orderI); setI != 0; setI &= setI - 1) {
+                    votes[Long.numberOfTrailingZeros(setI)]++;
+                }
+            }
+
+            // (3) Lieutenant i uses the majority of the values vj, out of |lieutenants| values.
+            int total = Long.bitCount(lieutenants);
+            attacks = 0;
+            for (long set = lieutenants; set != 0; set &= set - 1) {
+                int lieutenant = Long.numberOfTrailingZeros(set);
+                if (votes[lieutenant] > total - votes[lieutenant]) {
+                    attacks |= 1L << lieutenant;
+                }
+            }
+        }
+
+        cache.put(subProblem, attacks);
+        return attacks;
+    }
+
+    /**
+     * @return The number of sub-problems of the last execution found in the cache.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return The number of sub-problems of the last execution computed and cached.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * @return The number of sub-problems of the last execution with only loyal generals, resolved without recursion.
+     */
+    public long getLoyal() {
+        return loyal;
+    }
+
+    /**
+     * Key of a cached sub-problem.
+     */
+    private static final class SubProblem {
+
+        private final int commander;
+        private final long lieutenants;
+        private final int m;
+        private final Order order;
+        private final long traitors;
+
+        SubProblem(int commander, long lieutenants, int m, Order order, long traitors) {
+            this.commander = commander;
+            this.lieutenants = lieutenants;
+            this.m = m;
+            this.order = order;
+            this.traitors = traitors;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SubProblem)) {
+                return false;
+            }
+            SubProblem that = (SubProblem) o;
+            return commander == that.commander && lieutenants == that.lieutenants && m == that.m &&
+                    order == that.order && traitors == that.traitors;
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = Long.hashCode(lieutenants * 0x9E3779B97F4A7C15L ^ traitors);
+            return 31 * (31 * (31 * hash + commander) + m) + order.ordinal();
+        }
+    }
+}
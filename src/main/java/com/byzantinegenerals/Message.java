@@ -6,26 +6,54 @@ package com.byzantinegenerals;
 public class Message {
 
     private final Order order;
-    private final Officer sender;
+    private final Receiver sender;
+    private final Path path;
+    private final SignatureChain signatures;
 
-    public Message(Order order, Officer sender) {
+    public Message(Order order, Receiver sender) {
+        this(order, sender, Path.root(0));
+    }
+
+    public Message(Order order, Receiver sender, Path path) {
+        this.order = order;
+        this.sender = sender;
+        this.path = path;
+        this.signatures = null;
+    }
+
+    public Message(Order order, Receiver sender, SignatureChain signatures) {
         this.order = order;
         this.sender = sender;
+        this.path = Path.root(0);
+        this.signatures = signatures;
     }
 
     public Order getOrder() {
         return order;
     }
 
-    public Officer getSender() {
+    public Receiver getSender() {
         return sender;
     }
 
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return The signatures of a signed message, or null for a oral message.
+     */
+    public SignatureChain getSignatures() {
+        return signatures;
+    }
+
     @Override
     public String toString() {
         return "Message{" +
                 "order=" + order +
                 ", sender=" + sender +
+                ", path=" + path +
+                ", signatures=" + signatures +
                 '}';
     }
 }
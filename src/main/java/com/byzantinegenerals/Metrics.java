@@ -0,0 +1,225 @@
+package com.byzantinegenerals;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the executions of a algorithm: messages per recursion level and per general, wall time of each OM(m)
+ * step, majority computations and allocated bytes.
+ * <p>The generals report the messages they send and receive, and the algorithms the steps they execute, when a
+ * Metrics is set (see {@link ByzantineGenerals.Builder#setMetrics(Metrics)}). Otherwise nothing is reported, at the
+ * cost of a null check. Counters are striped (LongAdder), so concurrent engines report without contention.
+ * <p>The allocated bytes are measured on the thread calling {@link ByzantineGenerals#executeAlgorithmOMm()}, so
+ * allocations of the pools of the parallel engines are not counted.
+ */
+public class Metrics implements MetricsMXBean {
+
+    /**
+     * The OM(m) steps.
+     */
+    public enum Step {
+        SEND,       // (1) the commander sends his value to every lieutenant
+        RELAY,      // (2) every lieutenant acts as the commander in OM(m - 1)
+        MAJORITY    // (3) every lieutenant uses the majority value
+    }
+
+    public static final String OBJECT_NAME = "com.byzantinegenerals:type=Metrics";
+
+    private final LongAdder[] messagesPerLevel;
+    private final LongAdder[] sent;
+    private final LongAdder[] received;
+    private final LongAdder majorities = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder wallNanos = new LongAdder();
+    private final Map<Step, LatencyHistogram> steps = new EnumMap<>(Step.class);
+
+    /**
+     * Constructs the metrics.
+     *
+     * @param generals The number of generals, messages of generals with larger ids are not counted per general.
+     * @param levels The number of recursion levels 'm + 1', messages of deeper levels are counted on the last one.
+     */
+    public Metrics(int generals, int levels) {
+        this.messagesPerLevel = adders(Math.max(levels, 1));
+        this.sent = adders(generals);
+        this.received = adders(generals);
+        for (Step step : Step.values()) {
+            steps.put(step, new LatencyHistogram());
+        }
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static long[] sums(LongAdder[] adders) {
+        long[] sums = new long[adders.length];
+        for (int i = 0; i < adders.length; i++) {
+            sums[i] = adders[i].sum();
+        }
+        return sums;
+    }
+
+    /**
+     * Counts a message sent by a general.
+     */
+    void sent(int general) {
+        if (general >= 0 && general < sent.length) {
+            sent[general].increment();
+        }
+    }
+
+    /**
+     * Counts a message received by a general, for the level of its path.
+     */
+    void received(int general, int level) {
+        messagesPerLevel[Math.min(level, messagesPerLevel.length - 1)].increment();
+        if (general >= 0 && general < received.length) {
+            received[general].increment();
+        }
+    }
+
+    /**
+     * Counts the majorities computed by a general.
+     */
+    void majorities(long majorities) {
+        this.majorities.add(majorities);
+    }
+
+    /**
+     * Records the wall time of a step.
+     */
+    void step(Step step, long nanos) {
+        steps.get(step).record(nanos);
+    }
+
+    /**
+     * Records a whole execution.
+     */
+    void execution(long nanos, long allocatedBytes) {
+        wallNanos.add(nanos);
+        if (allocatedBytes > 0) {
+            this.allocatedBytes.add(allocatedBytes);
+        }
+    }
+
+    /**
+     * @return The bytes allocated by the current thread so far, or -1 if not supported by the JVM.
+     */
+    static long threadAllocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunThreads = (com.sun.management.ThreadMXBean) threads;
+            if (sunThreads.isThreadAllocatedMemorySupported() && sunThreads.isThreadAllocatedMemoryEnabled()) {
+                return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Registers the metrics on the platform MBean server, as {@link #OBJECT_NAME}.
+     *
+     * @throws IllegalStateException If the metrics cannot be registered (e.g. other metrics are registered).
+     */
+    public void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Unregisters the metrics from the platform MBean server.
+     *
+     * @throws IllegalStateException If the metrics are not registered.
+     */
+    public void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot unregister " + OBJECT_NAME, e);
+        }
+    }
+
+    @Override
+    public long getMessages() {
+        long messages = 0;
+        for (LongAdder level : messagesPerLevel) {
+            messages += level.sum();
+        }
+        return messages;
+    }
+
+    @Override
+    public long[] getMessagesPerLevel() {
+        return sums(messagesPerLevel);
+    }
+
+    @Override
+    public long[] getMessagesSent() {
+        return sums(sent);
+    }
+
+    @Override
+    public long[] getMessagesReceived() {
+        return sums(received);
+    }
+
+    @Override
+    public long getMajorities() {
+        return majorities.sum();
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public long getWallNanos() {
+        return wallNanos.sum();
+    }
+
+    public LatencyHistogram getStep(Step step) {
+        return steps.get(step);
+    }
+
+    @Override
+    public String getSnapshot() {
+        StringBuilder json = new StringBuilder("{")
+                .append("\"messages\":").append(getMessages())
+                .append(",\"messagesPerLevel\":").append(Arrays.toString(getMessagesPerLevel()).replace(" ", ""))
+                .append(",\"messagesSent\":").append(Arrays.toString(getMessagesSent()).replace(" ", ""))
+                .append(",\"messagesReceived\":").append(Arrays.toString(getMessagesReceived()).replace(" ", ""))
+                .append(",\"majorities\":").append(getMajorities())
+                .append(",\"allocatedBytes\":").append(getAllocatedBytes())
+                .append(",\"wallNanos\":").append(getWallNanos())
+                .append(",\"steps\":{");
+        for (Step step : Step.values()) {
+            json.append(step.ordinal() > 0 ? "," : "").append('"').append(step).append("\":").append(steps.get(step).toJson());
+        }
+        return json.append("}}").toString();
+    }
+
+    @Override
+    public String toString() {
+        return "Metrics{" +
+                "messages=" + getMessages() +
+                ", majorities=" + getMajorities() +
+                ", allocatedBytes=" + getAllocatedBytes() +
+                ", wallNanos=" + getWallNanos() +
+                '}';
+    }
+}
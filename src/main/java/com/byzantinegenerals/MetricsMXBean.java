@@ -0,0 +1,26 @@
+package com.byzantinegenerals;
+
+/**
+ * JMX view of the {@link Metrics} of a execution.
+ */
+public interface MetricsMXBean {
+
+    long getMessages();
+
+    long[] getMessagesPerLevel();
+
+    long[] getMessagesSent();
+
+    long[] getMessagesReceived();
+
+    long getMajorities();
+
+    long getAllocatedBytes();
+
+    long getWallNanos();
+
+    /**
+     * @return All metrics, as a JSON object.
+     */
+    String getSnapshot();
+}
@@ -0,0 +1,67 @@
+package com.byzantinegenerals;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Runs seeded trials of a ByzantineGenerals configuration in parallel, with randomly selected traitors.
+ * <p>Every trial builds its own ByzantineGenerals, with traitors selected from a seed derived from the batch seed and
+ * the trial number, so a batch is reproducible regardless of the number of threads. Results are aggregated per thread
+ * as trials complete and only the statistics are kept.
+ */
+public class MonteCarlo {
+
+    private final List<String> generalNames;
+    private final Order commanderOrder;
+    private final int recursionLevel;
+    private final Supplier<Algorithm> algorithm;
+
+    /**
+     * Constructs a Monte Carlo runner.
+     *
+     * @param generalNames The list of general names.
+     * @param commanderOrder The commander order.
+     * @param recursionLevel The recursion level 'm', also the number of traitors.
+     * @param algorithm Supplies the algorithm executed by each trial.
+     */
+    public MonteCarlo(List<String> generalNames, Order commanderOrder, int recursionLevel, Supplier<Algorithm> algorithm) {
+        this.generalNames = generalNames;
+        this.commanderOrder = commanderOrder;
+        this.recursionLevel = recursionLevel;
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Runs the trials on all cores.
+     *
+     * @param trials The number of trials.
+     * @param seed The batch seed.
+     * @return The aggregated statistics.
+     */
+    public TrialStatistics run(long trials, long seed) {
+        return LongStream.range(0, trials).parallel()
+                .collect(TrialStatistics::new, (statistics, trial) -> runTrial(statistics, trialSeed(seed, trial)), TrialStatistics::combine);
+    }
+
+    private void runTrial(TrialStatistics statistics, long seed) {
+        ByzantineGenerals byzantineGenerals = new ByzantineGenerals.Builder(generalNames)
+                .setCommanderOrder(commanderOrder)
+                .setRecursionLevel(recursionLevel)
+                .setAlgorithm(algorithm.get())
+                .setSeed(seed)
+                .build();
+        boolean success = byzantineGenerals.executeAlgorithmOMm();
+        statistics.add(success, byzantineGenerals.getDecision());
+    }
+
+    /**
+     * Derives the seed of a trial (SplitMix64 finalizer), so consecutive trials get unrelated seeds.
+     */
+    static long trialSeed(long seed, long trial) {
+        long z = seed + (trial + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,218 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Launches each general as a {@link NetworkNode} process on localhost and collects their decisions.
+ * <p>The output of each process is read by its own thread, so a process that hangs without closing its output cannot
+ * block the launcher: the processes still running when the timeout expires are killed.
+ */
+public class NetworkLauncher {
+
+    private static final Logger LOGGER = LogManager.getLogger(NetworkLauncher.class);
+
+    private final List<String> generalNames;
+    private final int recursionLevel;
+    private final Order commanderOrder;
+    private final List<Integer> traitors;
+    private final String[] nodes;
+    private long timeoutMillis = TimeUnit.SECONDS.toMillis(120);
+
+    private long framesSent;
+    private long bytesSent;
+
+    /**
+     * Constructs a launcher.
+     *
+     * @param generalNames The names of the generals, the commander first.
+     * @param recursionLevel The recursion level 'm'.
+     * @param commanderOrder The commander order.
+     * @param traitors The indexes of the traitors.
+     */
+    public NetworkLauncher(List<String> generalNames, int recursionLevel, Order commanderOrder, List<Integer> traitors) {
+        this.generalNames = generalNames;
+        this.recursionLevel = recursionLevel;
+        this.commanderOrder = commanderOrder;
+        this.traitors = traitors;
+        this.nodes = new String[generalNames.size()];
+        Arrays.fill(nodes, NetworkNode.class.getName());
+    }
+
+    /**
+     * Sets the time the generals have to decide (default 120 seconds).
+     *
+     * @param timeout The timeout.
+     * @param unit The unit of the timeout.
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutMillis = unit.toMillis(timeout);
+    }
+
+    // Utilized on unit tests
+    void setNode(int id, Class<?> node) {
+        nodes[id] = node.getName();
+    }
+
+    /**
+     * Starts a process per general and waits for all of them to decide.
+     *
+     * @return The order decided by each general, by index.
+     * @throws IOException If a process cannot be started, or does not decide before the timeout.
+     */
+    public List<Order> launch() throws IOException {
+        int basePort = findBasePort(generalNames.size());
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        String traitorIds = traitors.isEmpty() ? "-" : traitors.stream().map(String::valueOf).collect(Collectors.joining(","));
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        List<Process> processes = new ArrayList<>(generalNames.size());
+        List<FutureTask<String>> outputs = new ArrayList<>(generalNames.size());
+        try {
+            for (int id = 0; id < generalNames.size(); id++) {
+                Process process = new ProcessBuilder(java, "-DmessageLogging=false", "-DlogFilename=node-" + id,
+                        "-cp", System.getProperty("java.class.path"), nodes[id],
+                        String.valueOf(id), String.valueOf(recursionLevel), String.join(",", generalNames), traitorIds,
+                        commanderOrder.name(), String.valueOf(basePort))
+                        .redirectErrorStream(true)
+                        .start();
+                processes.add(process);
+                outputs.add(read(id, process));
+            }
+
+            List<Order> decisions = new ArrayList<>(generalNames.size());
+            for (int id = 0; id < processes.size(); id++) {
+                decisions.add(awaitDecision(id, processes.get(id), outputs.get(id), deadline));
+            }
+            LOGGER.info("{} generals sent {} frames ({} bytes)", generalNames.size(), framesSent, bytesSent);
+            return decisions;
+        } finally {
+            for (Process process : processes) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Reads the output of a process on a daemon thread, logging every line but the decision.
+     *
+     * @return The decision line, or null if the process exits without deciding.
+     */
+    private FutureTask<String> read(int id, Process process) {
+        FutureTask<String> output = new FutureTask<>(() -> {
+            String decision = null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (line.startsWith(NetworkNode.DECISION)) {
+                        decision = line;
+                    } else {
+                        LOGGER.info("{}: {}", generalNames.get(id), line);
+                    }
+                }
+            }
+            return decision;
+        });
+        Thread thread = new Thread(output, "output-" + generalNames.get(id));
+        thread.setDaemon(true);
+        thread.start();
+        return output;
+    }
+
+    private Order awaitDecision(int id, Process process, FutureTask<String> output, long deadline) throws IOException {
+        String decision;
+        try {
+            decision = output.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!process.waitFor(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                throw new TimeoutException();
+            }
+        } catch (TimeoutException e) {
+            throw new IOException(String.format("%s did not finish in %d ms", generalNames.get(id), timeoutMillis), e);
+        } catch (ExecutionException e) {
+            throw new IOException("Cannot read the output of " + generalNames.get(id), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for " + generalNames.get(id), e);
+        }
+        if (decision == null) {
+            throw new IOException(String.format("%s exited with %d without deciding", generalNames.get(id), process.exitValue()));
+        }
+        String[] fields = decision.split(" ");
+        framesSent += Long.parseLong(fields[3]);
+        bytesSent += Long.parseLong(fields[4]);
+        return Order.valueOf(fields[2]);
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    /**
+     * Finds a range of free ports on localhost.
+     */
+    private static int findBasePort(int count) throws IOException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            int basePort = ThreadLocalRandom.current().nextInt(20000, 60000 - count);
+            List<ServerSocket> sockets = new ArrayList<>(count);
+            try {
+                for (int i = 0; i < count; i++) {
+                    sockets.add(new ServerSocket(basePort + i, 1, InetAddress.getLoopbackAddress()));
+                }
+                return basePort;
+            } catch (IOException e) {
+                // port in use, try another range
+            } finally {
+                for (ServerSocket socket : sockets) {
+                    socket.close();
+                }
+            }
+        }
+        throw new IOException(String.format("No range of %d free ports", count));
+    }
+
+    /**
+     * Main method
+     *
+     * @param args 'm' 'g1,g2,g3,...,gn' 'o' ['t1,t2,...'], where:
+     *             <p>'m' is the level of recursion
+     *             <p>'g1,g2,g3,...,gn' is the list of general names
+     *             <p>'o' is the commander order
+     *             <p>'t1,t2,...' is the list of traitor indexes (default none)
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 && args.length != 4) {
+            System.err.println("Execution:\n java -cp ByzantineGenerals com.byzantinegenerals.NetworkLauncher <m> <g1,g2,g3,...,gn> <o> [<t1,t2,...>]");
+            System.exit(1);
+        }
+
+        List<Integer> traitors = args.length == 4
+                ? Arrays.stream(args[3].split(",")).map(Integer::valueOf).collect(Collectors.toList())
+                : new ArrayList<>();
+        NetworkLauncher launcher = new NetworkLauncher(Arrays.asList(args[1].split(",")), Integer.parseInt(args[0]),
+                Order.valueOf(args[2]), traitors);
+        List<Order> decisions = launcher.launch();
+        for (int id = 0; id < decisions.size(); id++) {
+            System.out.printf("%s executed %s%n", launcher.generalNames.get(id), decisions.get(id));
+        }
+    }
+}
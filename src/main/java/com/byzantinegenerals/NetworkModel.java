@@ -0,0 +1,143 @@
+package com.byzantinegenerals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Model of the links between the generals of a simulation (see {@link SimulatedAlgorithmOMm}): the latency of each
+ * message and the probability of losing it.
+ * <p>The generals are identified by their position: 0 is the commander and 'i' the lieutenant 'i' (from 1). Every link
+ * follows the default latency and loss unless overridden for its sender and receiver.
+ */
+public class NetworkModel {
+
+    private final Link defaultLink;
+    private final Map<Long, Link> links = new HashMap<>();
+
+    /**
+     * Constructs a model where every link has the same latency and loss.
+     *
+     * @param latency The latency distribution of the links.
+     * @param loss The probability of losing a message, in [0, 1].
+     * @throws IllegalArgumentException If the loss is not a probability.
+     */
+    public NetworkModel(Latency latency, double loss) {
+        this.defaultLink = new Link(latency, loss);
+    }
+
+    /**
+     * Overrides the latency and loss of the link from a sender to a receiver.
+     *
+     * @param sender The position of the sender.
+     * @param receiver The position of the receiver.
+     * @param latency The latency distribution of the link.
+     * @param loss The probability of losing a message, in [0, 1].
+     * @return This model.
+     * @throws IllegalArgumentException If the loss is not a probability.
+     */
+    public NetworkModel setLink(int sender, int receiver, Latency latency, double loss) {
+        links.put(key(sender, receiver), new Link(latency, loss));
+        return this;
+    }
+
+    /**
+     * Gets the link from a sender to a receiver.
+     */
+    Link link(int sender, int receiver) {
+        return links.getOrDefault(key(sender, receiver), defaultLink);
+    }
+
+    private static long key(int sender, int receiver) {
+        return (long) sender << 32 | receiver & 0xFFFFFFFFL;
+    }
+
+    /**
+     * Distribution of the latency of the messages of a link.
+     */
+    @FunctionalInterface
+    public interface Latency {
+
+        /**
+         * Draws the latency of a message.
+         *
+         * @param random The random generator of the simulation.
+         * @return The latency in nanoseconds, not negative.
+         */
+        long nanos(SplittableRandom random);
+
+        /**
+         * @return A constant latency.
+         */
+        static Latency fixed(long nanos) {
+            if (nanos < 0) {
+                throw new IllegalArgumentException("Negative latency: " + nanos);
+            }
+            return random -> nanos;
+        }
+
+        /**
+         * @return A latency uniformly distributed in [min, max].
+         */
+        static Latency uniform(long min, long max) {
+            if (min < 0 || max < min) {
+                throw new IllegalArgumentException(String.format("Invalid latency range [%d, %d]", min, max));
+            }
+            return random -> min + random.nextLong(max - min + 1);
+        }
+
+        /**
+         * @return A latency of min plus a exponentially distributed delay, of the given mean: most messages are fast,
+         * a few are much slower.
+         */
+        static Latency exponential(long min, long mean) {
+            if (min < 0 || mean < 0) {
+                throw new IllegalArgumentException(String.format("Invalid latency min %d, mean %d", min, mean));
+            }
+            return random -> min + (long) (-mean * Math.log(1 - random.nextDouble()));
+        }
+    }
+
+    /**
+     * The latency and loss of a link.
+     */
+    static final class Link {
+
+        private final Latency latency;
+        private final double loss;
+
+        Link(Latency latency, double loss) {
+            if (!(loss >= 0 && loss <= 1)) {
+                throw new IllegalArgumentException("Loss is not a probability: " + loss);
+            }
+            this.latency = latency;
+            this.loss = loss;
+        }
+
+        /**
+         * Draws the latency of a message, or -1 if the message is lost.
+         */
+        long delay(SplittableRandom random) {
+            if (loss > 0 && random.nextDouble() < loss) {
+                return -1;
+            }
+            return latency.nanos(random);
+        }
+
+        @Override
+        public String toString() {
+            return "Link{" +
+                    "latency=" + latency +
+                    ", loss=" + loss +
+                    '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkModel{" +
+                "defaultLink=" + defaultLink +
+                ", links=" + links +
+                '}';
+    }
+}
@@ -0,0 +1,386 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A general running in its own process, exchanging the orders of OM(m) with the other generals over localhost sockets.
+ * <p>The rounds are the ones of {@link AsyncAlgorithmOMm}: the commander sends its order in round 0 and, in each round
+ * 'k' up to 'm', every lieutenant relays the orders received in round 'k - 1'. All the orders sent to a peer in a round
+ * go in a single frame, so a lieutenant knows a round is complete when it has a frame from every peer.
+ * <p>Frames are encoded as: length (int), round (int), sender id (int), number of orders (int) and, for each order, the
+ * path level (byte), the path rank (int) and the order (byte). Channels are non-blocking and served by one selector.
+ * <p>General 'i' listens on port 'basePort + i'. When it decides, it prints a line starting with {@link #DECISION}.
+ */
+public class NetworkNode {
+
+    private static final Logger LOGGER = LogManager.getLogger(NetworkNode.class);
+
+    static final String DECISION = "DECISION";
+
+    private static final int HEADER = 4 * Integer.BYTES;
+    private static final int ENTRY = Byte.BYTES + Integer.BYTES + Byte.BYTES;
+    private static final long CONNECT_RETRY_MILLIS = 50;
+    private static final long CONNECT_TIMEOUT_MILLIS = 30_000;
+    private static final long SELECT_TIMEOUT_MILLIS = 30_000;
+
+    private final General general;
+    private final int m;
+    private final int basePort;
+    private final List<Receiver> lieutenants = new ArrayList<>();
+    private final Map<Integer, Peer> peers = new HashMap<>();
+
+    private final Map<Integer, List<Message>> received = new HashMap<>();
+    private final Map<Integer, Integer> frames = new HashMap<>();
+    private Selector selector;
+    private long bytesSent;
+    private long framesSent;
+
+    /**
+     * Constructs a node.
+     *
+     * @param general The general of this node.
+     * @param generalNames The names of all the generals, the commander first. A general id is its index.
+     * @param m The recursive level.
+     * @param basePort The port of the commander, general 'i' uses 'basePort + i'.
+     */
+    public NetworkNode(General general, List<String> generalNames, int m, int basePort) {
+        this.general = general;
+        this.m = m;
+        this.basePort = basePort;
+        for (int id = 0; id < generalNames.size(); id++) {
+            if (id != general.getId()) {
+                peers.put(id, new Peer(id, generalNames.get(id)));
+            }
+            if (id > 0) {
+                lieutenants.add(id == general.getId() ? general : peers.get(id));
+            }
+        }
+    }
+
+    /**
+     * Runs the general until it decides.
+     *
+     * @return The decided order.
+     * @throws IOException If the communication with the peers fails.
+     */
+    public Order run() throws IOException {
+        selector = Selector.open();
+        try {
+            if (general.getId() == 0) {
+                return command();
+            }
+            return lieutenant();
+        } finally {
+            for (Peer peer : peers.values()) {
+                if (peer.channel != null) {
+                    peer.channel.close();
+                }
+            }
+            selector.close();
+        }
+    }
+
+    /**
+     * (1) The commander sends his value to every lieutenant.
+     */
+    private Order command() throws IOException {
+        Path root = Path.root(lieutenants.size());
+        for (int i = 0; i < lieutenants.size(); i++) {
+            Peer peer = (Peer) lieutenants.get(i);
+            connect(peer);
+            peer.begin(0);
+            general.sendOrder(peer, i+1, root);
+            peer.end();
+        }
+        while (pendingWrites()) {
+            select();
+        }
+        return general.getOrder();
+    }
+
+    /**
+     * (2) Receives the orders of each round, relaying them in the next one, and (3) decides.
+     */
+    private Order lieutenant() throws IOException {
+        ServerSocketChannel server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), basePort + general.getId()));
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        for (Receiver lieutenant : lieutenants) {
+            if (lieutenant != general) {
+                connect((Peer) lieutenant);
+            }
+        }
+
+        general.prepare(lieutenants.size(), m);
+        for (int round = 0; round <= m; round++) {
+            int expected = round == 0 ? 1 : lieutenants.size() - 1;
+            while (frames.getOrDefault(round, 0) < expected) {
+                select();
+            }
+
+            List<Message> messages = received.remove(round);
+            for (Message message : messages) {
+                general.receiveOrder(message);
+            }
+            if (round < m) {
+                relay(round + 1, messages);
+            }
+        }
+        while (pendingWrites()) {
+            select();
+        }
+        server.close();
+        return general.majorityOrder();
+    }
+
+    /**
+     * Relays every received order to the other lieutenants of its path, one frame per peer.
+     */
+    private void relay(int round, List<Message> messages) throws IOException {
+        for (Receiver lieutenant : lieutenants) {
+            if (lieutenant != general) {
+                ((Peer) lieutenant).begin(round);
+            }
+        }
+        for (Message message : messages) {
+            List<Receiver> lieutenantsI = message.getPath().lieutenants(lieutenants);
+            Path pathI = message.getPath().child(lieutenantsI.indexOf(general));
+            lieutenantsI.remove(general);
+            general.sendOrders(lieutenantsI, pathI);
+        }
+        for (Receiver lieutenant : lieutenants) {
+            if (lieutenant != general) {
+                ((Peer) lieutenant).end();
+            }
+        }
+    }
+
+    private void connect(Peer peer) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), basePort + peer.id);
+        long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+        while (true) {
+            SocketChannel channel = SocketChannel.open();
+            try {
+                channel.connect(address);
+                channel.configureBlocking(false);
+                channel.register(selector, 0, peer);
+                peer.channel = channel;
+                return;
+            } catch (ConnectException e) {
+                channel.close();
+                if (System.currentTimeMillis() > deadline) {
+                    throw e;
+                }
+                try {
+                    Thread.sleep(CONNECT_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while connecting to " + peer.getName(), interrupted);
+                }
+            }
+        }
+    }
+
+    private boolean pendingWrites() {
+        for (Peer peer : peers.values()) {
+            if (!peer.pending.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Serves the ready channels.
+     *
+     * @throws IOException If no channel is ready in {@link #SELECT_TIMEOUT_MILLIS}, as a peer stopped answering.
+     */
+    private void select() throws IOException {
+        long start = System.currentTimeMillis();
+        if (selector.select(SELECT_TIMEOUT_MILLIS) == 0 && System.currentTimeMillis() - start >= SELECT_TIMEOUT_MILLIS) {
+            throw new IOException(String.format("%s got no frame in %d ms", general.getName(), SELECT_TIMEOUT_MILLIS));
+        }
+        for (SelectionKey key : selector.selectedKeys()) {
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                SocketChannel channel = ((ServerSocketChannel) key.channel()).accept();
+                if (channel != null) {
+                    channel.configureBlocking(false);
+                    channel.register(selector, SelectionKey.OP_READ, ByteBuffer.allocate(1 << 12));
+                }
+            } else if (key.isReadable()) {
+                read(key);
+            } else if (key.isWritable()) {
+                ((Peer) key.attachment()).write();
+            }
+        }
+        selector.selectedKeys().clear();
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        ByteBuffer buffer = (ByteBuffer) key.attachment();
+        if (channel.read(buffer) < 0) {
+            key.cancel();
+            channel.close();
+        }
+
+        buffer.flip();
+        while (buffer.remaining() >= Integer.BYTES && buffer.remaining() >= Integer.BYTES + buffer.getInt(buffer.position())) {
+            buffer.getInt(); // length
+            decode(buffer);
+        }
+        buffer.compact();
+        if (!buffer.hasRemaining()) {
+            ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+            buffer.flip();
+            larger.put(buffer);
+            key.attach(larger);
+        }
+    }
+
+    private void decode(ByteBuffer frame) {
+        int round = frame.getInt();
+        Peer sender = peers.get(frame.getInt());
+        int count = frame.getInt();
+        List<Message> messages = received.computeIfAbsent(round, r -> new ArrayList<>());
+        for (int i = 0; i < count; i++) {
+            int level = frame.get();
+            int rank = frame.getInt();
+            Order order = Order.values()[frame.get()];
+            messages.add(new Message(order, sender, Path.of(lieutenants.size(), level, rank)));
+        }
+        frames.merge(round, 1, Integer::sum);
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * A remote general. Orders sent to it are encoded in the frame of the current round.
+     */
+    private class Peer implements Receiver {
+
+        private final int id;
+        private final String name;
+        private final List<ByteBuffer> pending = new ArrayList<>();
+        private SocketChannel channel;
+        private ByteBuffer frame = ByteBuffer.allocate(HEADER + 64 * ENTRY);
+        private int count;
+
+        Peer(int id, String name) {
+            this.id = id;
+            this.name = name;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        void begin(int round) {
+            frame.clear();
+            frame.putInt(0).putInt(round).putInt(general.getId()).putInt(0);
+            count = 0;
+        }
+
+        @Override
+        public void receiveOrder(Message message) {
+            if (frame.remaining() < ENTRY) {
+                frame = ByteBuffer.allocate(frame.capacity() * 2).put((ByteBuffer) frame.flip());
+            }
+            frame.put((byte) message.getPath().getLevel())
+                    .putInt(message.getPath().getRank())
+                    .put((byte) message.getOrder().ordinal());
+            count++;
+        }
+
+        void end() throws IOException {
+            frame.putInt(0, frame.position() - Integer.BYTES);
+            frame.putInt(3 * Integer.BYTES, count);
+            frame.flip();
+            pending.add(ByteBuffer.allocate(frame.remaining()).put(frame));
+            pending.get(pending.size() - 1).flip();
+            framesSent++;
+            write();
+        }
+
+        /**
+         * Writes the pending frames without blocking, waiting for the channel to be writable when its buffer is full.
+         */
+        void write() throws IOException {
+            while (!pending.isEmpty()) {
+                ByteBuffer buffer = pending.get(0);
+                bytesSent += channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    channel.keyFor(selector).interestOps(SelectionKey.OP_WRITE);
+                    return;
+                }
+                pending.remove(0);
+            }
+            channel.keyFor(selector).interestOps(0);
+        }
+    }
+
+    /**
+     * Main method, executed by {@link NetworkLauncher} for each general.
+     *
+     * @param args 'id' 'm' 'g0,g1,...,gn' 't1,t2,...' 'o' 'port', where:
+     *             <p>'id' is the index of this general ('0' is the commander)
+     *             <p>'m' is the level of recursion
+     *             <p>'g0,g1,...,gn' is the list of general names
+     *             <p>'t1,t2,...' is the list of traitor indexes, or '-' if there are no traitors
+     *             <p>'o' is the commander order
+     *             <p>'port' is the base port
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 6) {
+            System.err.println("Execution:\n java -cp ByzantineGenerals com.byzantinegenerals.NetworkNode <id> <m> <g0,g1,...,gn> <t1,t2,...> <o> <port>");
+            System.exit(1);
+        }
+
+        int id = Integer.parseInt(args[0]);
+        List<String> generalNames = Arrays.asList(args[2].split(","));
+        boolean loyal = !Arrays.asList(args[3].split(",")).contains(args[0]);
+        General general = new General(id, generalNames.get(id), loyal);
+        if (id == 0) {
+            general.setOrder(Order.valueOf(args[4]));
+        }
+
+        NetworkNode node = new NetworkNode(general, generalNames, Integer.parseInt(args[1]), Integer.parseInt(args[5]));
+        long start = System.nanoTime();
+        Order order = node.run();
+        long elapsed = System.nanoTime() - start;
+        LOGGER.info("{} sent {} frames ({} bytes) in {} us", general.getName(), node.getFramesSent(), node.getBytesSent(), elapsed / 1000);
+        System.out.printf("%s %d %s %d %d %d%n", DECISION, id, order, node.getFramesSent(), node.getBytesSent(), elapsed);
+    }
+}
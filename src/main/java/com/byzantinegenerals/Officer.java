@@ -3,12 +3,10 @@ package com.byzantinegenerals;
 /**
  * Defines a officer basic behaviour.
  */
-public interface Officer {
+public interface Officer extends Receiver {
 
-    String getName();
+    void sendOrder(Receiver lieutenant, int index);
 
-    void sendOrder(Officer lieutenant, int index);
-
-    void receiveOrder(Message message);
+    void sendOrder(Receiver lieutenant, int index, Path path);
 
 }
@@ -0,0 +1,142 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Algorithm OM(m), executed on a ForkJoinPool.
+ * <p>Once the commander has sent its order (step 1), the sub-invocations OM(m - 1) of step (2) write to disjoint paths
+ * of the lieutenants' information trees, so each one is forked as a task. Small sub-invocations run sequentially, on
+ * the recursion of the worker (see {@link AlgorithmOMm.Recursion}). As in the recursion, the lieutenants of a invocation
+ * are indexes in the lieutenants of the execution and the paths their level and rank, and orders are sent with the
+ * primitive {@link General#sendOrders(General[], int[], int, int, int)}: a forked invocation only allocates the
+ * indexes of its lieutenants. Step (3) is resolved by every lieutenant in parallel.
+ */
+public class ParallelAlgorithmOMm extends AlgorithmOMm {
+
+    private static final Logger LOGGER = LogManager.getLogger(ParallelAlgorithmOMm.class);
+
+    private final ForkJoinPool pool;
+    private final int sequentialLevel;
+    private final int sequentialLieutenants;
+
+    /**
+     * Constructs the algorithm on the common pool, running OM(1) and OM(0) sequentially.
+     */
+    public ParallelAlgorithmOMm() {
+        this(ForkJoinPool.commonPool(), 1, 4);
+    }
+
+    /**
+     * Constructs the algorithm.
+     *
+     * @param pool The pool executing the sub-invocations.
+     * @param sequentialLevel Sub-invocations OM(k), k <= sequentialLevel, are executed sequentially.
+     * @param sequentialLieutenants Sub-invocations with up to sequentialLieutenants lieutenants are executed sequentially.
+     */
+    public ParallelAlgorithmOMm(ForkJoinPool pool, int sequentialLevel, int sequentialLieutenants) {
+        this(pool, sequentialLevel, sequentialLieutenants, TreeStorage.HEAP);
+    }
+
+    /**
+     * Constructs the algorithm.
+     *
+     * @param pool The pool executing the sub-invocations.
+     * @param sequentialLevel Sub-invocations OM(k), k <= sequentialLevel, are executed sequentially.
+     * @param sequentialLieutenants Sub-invocations with up to sequentialLieutenants lieutenants are executed sequentially.
+     * @param storage The storage of the lieutenants' information trees.
+     */
+    public ParallelAlgorithmOMm(ForkJoinPool pool, int sequentialLevel, int sequentialLieutenants, TreeStorage storage) {
+        super(storage);
+        this.pool = pool;
+        this.sequentialLevel = sequentialLevel;
+        this.sequentialLieutenants = sequentialLieutenants;
+    }
+
+    @Override
+    public void execute(General commander, List<General> lieutenants, int m) {
+        prepare(lieutenants, m);
+        General[] generals = lieutenants.toArray(new General[0]);
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                new Invocation(commander, generals, indexes(generals.length), m, 0, 0).invoke();
+
+                // (3) Every lieutenant resolves its own information tree
+                long start = start(commander);
+                List<ForkJoinTask<?>> decisions = new ArrayList<>(lieutenants.size());
+                for (General lieutenant : lieutenants) {
+                    decisions.add(ForkJoinTask.adapt(lieutenant::majorityOrder));
+                }
+                invokeAll(decisions);
+                step(commander, Metrics.Step.MAJORITY, start);
+            }
+        });
+    }
+
+    /**
+     * A invocation of OM(m), forking the sub-invocations of step (2).
+     */
+    private class Invocation extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final General commander;
+        private final General[] generals;
+        private final int[] lieutenants;
+        private final int m;
+        private final int level;
+        private final int rank;
+
+        Invocation(General commander, General[] generals, int[] lieutenants, int m, int level, int rank) {
+            this.commander = commander;
+            this.generals = generals;
+            this.lieutenants = lieutenants;
+            this.m = m;
+            this.level = level;
+            this.rank = rank;
+        }
+
+        @Override
+        protected void compute() {
+            int count = lieutenants.length;
+            if (m <= sequentialLevel || count <= sequentialLieutenants) {
+                algorithmOMm(commander, generals, lieutenants, count, m, level, rank);
+                return;
+            }
+
+            // (1) The commander sends his value to every lieutenant.
+            if (General.MESSAGE_LOGGING) {
+                LOGGER.info("Executing m({}), step 1 for {}", m, commander);
+            }
+            long start = start(commander);
+            commander.sendOrders(generals, lieutenants, count, level, rank);
+            step(commander, Metrics.Step.SEND, start);
+
+            // (2) Lieutenant i acts as the commander in Algorithm OM(m - 1), forked
+            if (General.MESSAGE_LOGGING) {
+                LOGGER.info("Executing m({}), step 2 for {}", m, commander);
+            }
+            start = start(commander);
+            Invocation[] invocations = new Invocation[count];
+            for (int i = 0; i < count; i++) {
+                int[] lieutenantsI = new int[count - 1];     // lieutenants of the new commander 'i'
+                int k = 0;
+                for (int j = 0; j < count; j++) {
+                    if (j != i) {
+                        lieutenantsI[k++] = lieutenants[j];
+                    }
+                }
+                invocations[i] = new Invocation(generals[lieutenants[i]], generals, lieutenantsI, m - 1, level + 1, rank * count + i);
+            }
+            invokeAll(invocations);
+            step(commander, Metrics.Step.RELAY, start);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.byzantinegenerals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Address of a node in the information gathering tree.
+ * <p>A path is the chain of generals an order was relayed through (e.g. commander -> G3 -> G5). Instead of keeping the
+ * chain itself, the path is identified by its level (the number of relays) and its rank among all paths of the same
+ * level. The width is the number of lieutenants the last general of the path relays the order to.
+ * <p>Ranks are assigned in mixed radix, so the children of a path are contiguous: the child for the lieutenant 'i' has
+ * rank {@code rank * width + i}.
+ */
+public final class Path {
+
+    private final int level;
+    private final int rank;
+    private final int width;
+
+    private Path(int level, int rank, int width) {
+        this.level = level;
+        this.rank = rank;
+        this.width = width;
+    }
+
+    /**
+     * Creates the path of the commander's own order.
+     *
+     * @param lieutenants The number of lieutenants receiving the commander's order.
+     * @return The root path.
+     */
+    public static Path root(int lieutenants) {
+        return new Path(0, 0, lieutenants);
+    }
+
+    /**
+     * Creates a path from its level and rank.
+     *
+     * @param lieutenants The number of lieutenants of the root path.
+     * @param level The path level.
+     * @param rank The path rank.
+     * @return The path.
+     */
+    static Path of(int lieutenants, int level, int rank) {
+        return new Path(level, rank, lieutenants - level);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public boolean isRoot() {
+        return level == 0;
+    }
+
+    /**
+     * Creates the path of the order relayed by a lieutenant of this path.
+     *
+     * @param index The index of the lieutenant relaying the order, in [0, width).
+     * @return The child path.
+     * @throws IllegalArgumentException If the index is out of bounds.
+     */
+    public Path child(int index) {
+        if (index < 0 || index >= width) {
+            throw new IllegalArgumentException(String.format("Index %d out of bounds for %s", index, this));
+        }
+        return new Path(level + 1, rank * width + index, width - 1);
+    }
+
+    /**
+     * @return The path this path was relayed from.
+     * @throws IllegalStateException If this is the root path.
+     */
+    public Path parent() {
+        if (isRoot()) {
+            throw new IllegalStateException("Root path has no parent");
+        }
+        return new Path(level - 1, rank / (width + 1), width + 1);
+    }
+
+    /**
+     * Selects the lieutenants the last general of this path relays the order to.
+     * <p>The ranks of the path ancestors are the indexes of the generals that relayed the order, each one removed from
+     * the lieutenants of its parent.
+     *
+     * @param lieutenants The lieutenants of the root path, in order.
+     * @return The lieutenants of this path, in order.
+     */
+    public <T> List<T> lieutenants(List<T> lieutenants) {
+        int[] indexes = new int[level];
+        int ancestor = rank;
+        for (int k = level; k >= 1; k--) {
+            int radix = width + level - k + 1;
+            indexes[k - 1] = ancestor % radix;
+            ancestor /= radix;
+        }
+
+        List<T> lieutenantsI = new ArrayList<>(lieutenants);
+        for (int index : indexes) {
+            lieutenantsI.remove(index);
+        }
+        return lieutenantsI;
+    }
+
+    /**
+     * Selects the lieutenants of a path as indexes, without allocating: the primitive form of
+     * {@link #lieutenants(List)}.
+     *
+     * @param lieutenants The number of lieutenants of the root path.
+     * @param level The path level.
+     * @param rank The path rank.
+     * @param indexes Receives the indexes of the lieutenants of the path in the root path, in order, at least
+     * 'lieutenants' long.
+     * @param relays Receives the indexes of the generals that relayed the order, at least 'level' long.
+     * @return The number of lieutenants of the path, its width.
+     */
+    static int lieutenants(int lieutenants, int level, int rank, int[] indexes, int[] relays) {
+        int ancestor = rank;
+        for (int k = level; k >= 1; k--) {
+            int radix = lieutenants - k + 1;
+            relays[k - 1] = ancestor % radix;
+            ancestor /= radix;
+        }
+        for (int i = 0; i < lieutenants; i++) {
+            indexes[i] = i;
+        }
+        int width = lieutenants;
+        for (int k = 0; k < level; k++) {
+            System.arraycopy(indexes, relays[k] + 1, indexes, relays[k], width - relays[k] - 1);
+            width--;
+        }
+        return width;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Path)) {
+            return false;
+        }
+        Path path = (Path) o;
+        return level == path.level && rank == path.rank && width == path.width;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * level + rank) + width;
+    }
+
+    @Override
+    public String toString() {
+        return "Path{" +
+                "level=" + level +
+                ", rank=" + rank +
+                ", width=" + width +
+                '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.byzantinegenerals;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Chooses another strategy for every path, so a traitor can relay honestly on some paths and lie on others.
+ */
+class PerPathStrategy implements TraitorStrategy {
+
+    private final IntBinaryOperator choice;
+    private final TraitorStrategy[] strategies;
+
+    /**
+     * @throws IllegalArgumentException If there are no strategies.
+     */
+    PerPathStrategy(IntBinaryOperator choice, TraitorStrategy... strategies) {
+        if (strategies.length == 0) {
+            throw new IllegalArgumentException("No strategies to choose from");
+        }
+        this.choice = choice;
+        this.strategies = strategies.clone();
+    }
+
+    /**
+     * @throws IllegalStateException If the choice is not the index of a strategy.
+     */
+    private TraitorStrategy strategy(int level, int rank) {
+        int index = choice.applyAsInt(level, rank);
+        if (index < 0 || index >= strategies.length) {
+            throw new IllegalStateException(String.format("No strategy %d for level %d, rank %d", index, level, rank));
+        }
+        return strategies[index];
+    }
+
+    @Override
+    public Order order(Order order, int index, int count, int level, int rank) {
+        return strategy(level, rank).order(order, index, count, level, rank);
+    }
+
+    @Override
+    public long orders(Order order, int index, int count, int level, int rank) {
+        return strategy(level, rank).orders(order, index, count, level, rank);
+    }
+
+    @Override
+    public boolean isPathSensitive() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "PerPathStrategy{" +
+                "strategies=" + Arrays.toString(strategies) +
+                '}';
+    }
+}
@@ -0,0 +1,222 @@
+package com.byzantinegenerals;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * Decides a stream of commander orders (a log of commands), one consensus instance of OM(m) per order, over the same
+ * generals, pipelining the rounds of the instances.
+ * <p>A instance runs in 'm + 2' rounds: in round 0 the commander sends his value, in round 'k' every lieutenant
+ * relays the orders of the paths of level 'k - 1', and in round 'm + 1' every lieutenant uses the majority. The
+ * instances advance a round at a time, together: while the instance 'k' relays in round 'r', the instance 'k + 1' runs
+ * its round 'r - 1', so the step 1 of a instance overlaps the later steps of the previous ones. The rounds of the
+ * running instances run at once on the executor, and a new wave of instances starts every round.
+ * <p>The state of a instance (orders and information trees) is scoped to it, on its own copies of the generals (see
+ * {@link General#General(General)}), so it never leaks into another. At most 'depth' instances run at once, and
+ * decisions are delivered in the order of the commands, as soon as their instance completes.
+ */
+public class Pipeline {
+
+    private final List<General> generals;
+    private final int m;
+    private final ExecutorService executor;
+    private final int depth;
+
+    private long decisions;
+    private long rounds;
+    private long nanos;
+
+    /**
+     * Constructs the pipeline.
+     *
+     * @param generals The generals, the first one being the commander of every instance.
+     * @param m The recursion level.
+     * @param executor The executor running the rounds of the instances.
+     * @param depth The maximum number of instances running at once.
+     * @throws IllegalArgumentException If the depth is not positive.
+     */
+    public Pipeline(List<General> generals, int m, ExecutorService executor, int depth) {
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Depth must be positive: " + depth);
+        }
+        this.generals = generals;
+        this.m = m;
+        this.executor = executor;
+        this.depth = depth;
+    }
+
+    /**
+     * Decides a list of orders.
+     *
+     * @param commands The commander orders, one per instance.
+     * @return The decision of each instance (see {@link ByzantineGenerals#getDecision()}).
+     */
+    public List<Order> run(List<Order> commands) {
+        List<Order> decisions = new ArrayList<>(commands.size());
+        run(commands, decisions::add);
+        return decisions;
+    }
+
+    /**
+     * Decides a stream of orders, keeping at most 'depth' instances in memory.
+     * <p>A wave of 'depth / (m + 2)' instances (at least one) starts every round, so the pipeline is full once 'm + 2'
+     * waves are running.
+     *
+     * @param commands The commander orders, one per instance.
+     * @param log Receives the decision of each instance, in the order of the commands.
+     * @throws IllegalStateException If a instance fails, or the thread is interrupted.
+     */
+    public void run(Iterable<Order> commands, Consumer<Order> log) {
+        int wave = Math.max(1, depth / (m + 2));
+        Iterator<Order> pending = commands.iterator();
+        Queue<Instance> running = new ArrayDeque<>(depth);
+        List<Callable<Object>> round = new ArrayList<>(depth);
+        long start = System.nanoTime();
+        try {
+            while (pending.hasNext() || !running.isEmpty()) {
+                for (int i = 0; i < wave && running.size() < depth && pending.hasNext(); i++) {
+                    running.add(new Instance(pending.next()));
+                }
+
+                // one round of every running instance
+                round.clear();
+                for (Instance instance : running) {
+                    round.add(instance);
+                }
+                for (Future<Object> future : executor.invokeAll(round)) {
+                    future.get();
+                }
+                rounds++;
+
+                // the oldest instances complete first
+                while (!running.isEmpty() && running.peek().isDecided()) {
+                    log.accept(running.poll().decision);
+                    decisions++;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deciding the commands", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Instance failed", e.getCause());
+        } finally {
+            nanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * A consensus instance on its own copies of the generals, running a round per call.
+     */
+    private final class Instance implements Callable<Object> {
+
+        private final List<General> instance;
+        private final General[] lieutenants;
+        private final Order command;
+        private int round;
+        private Order decision;
+
+        // the lieutenants of a path, the lieutenants a lieutenant relays it to, and the lieutenants that relayed it
+        private final int[] indexes;
+        private final int[] receivers;
+        private final int[] relays;
+
+        Instance(Order command) {
+            this.command = command;
+            this.instance = new ArrayList<>(generals.size());
+            for (General general : generals) {
+                instance.add(new General(general));
+            }
+            this.lieutenants = instance.subList(1, instance.size()).toArray(new General[0]);
+            this.indexes = new int[lieutenants.length];
+            this.receivers = new int[lieutenants.length];
+            this.relays = new int[m + 1];
+        }
+
+        @Override
+        public Object call() {
+            if (round == 0) {
+                // (1) The commander sends his value to every lieutenant
+                General commander = instance.get(0);
+                commander.setOrder(command);
+                for (int i = 0; i < lieutenants.length; i++) {
+                    lieutenants[i].prepare(lieutenants.length, m);
+                    indexes[i] = i;
+                }
+                commander.sendOrders(lieutenants, indexes, lieutenants.length, 0, 0);
+            } else if (round <= m) {
+                relay(round - 1);
+            } else {
+                // (3) Every lieutenant uses the majority of the received orders
+                for (General lieutenant : lieutenants) {
+                    lieutenant.majorityOrder();
+                }
+                decision = new ByzantineGenerals(instance, command, m).getDecision();
+            }
+            round++;
+            return null;
+        }
+
+        /**
+         * (2) Every lieutenant acts as the commander in Algorithm OM(m - k) for the paths of level 'k' it received.
+         */
+        private void relay(int level) {
+            long paths = InformationTree.size(lieutenants.length, level);
+            for (int rank = 0; rank < paths; rank++) {
+                int width = Path.lieutenants(lieutenants.length, level, rank, indexes, relays);
+                for (int i = 0; i < width; i++) {
+                    int count = 0;
+                    for (int j = 0; j < width; j++) {
+                        if (j != i) {
+                            receivers[count++] = indexes[j];
+                        }
+                    }
+                    lieutenants[indexes[i]].sendOrders(lieutenants, receivers, count, level + 1, rank * width + i);
+                }
+            }
+        }
+
+        boolean isDecided() {
+            return round > m + 1;
+        }
+    }
+
+    /**
+     * @return The number of decided instances.
+     */
+    public long getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * @return The number of pipeline rounds run, each one a round of every running instance.
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * @return The decisions per second, over all runs.
+     */
+    public double getDecisionsPerSecond() {
+        return nanos == 0 ? 0 : decisions * 1e9 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "Pipeline{" +
+                "generals=" + generals.size() +
+                ", m=" + m +
+                ", depth=" + depth +
+                ", decisions=" + decisions +
+                ", decisionsPerSecond=" + getDecisionsPerSecond() +
+                '}';
+    }
+}
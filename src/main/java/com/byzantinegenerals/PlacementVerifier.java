@@ -0,0 +1,287 @@
+package com.byzantinegenerals;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Verifies a algorithm against every placement of up to 'm' traitors among the generals, reporting the placements that
+ * violate the interactive consistency conditions (see {@link ByzantineGenerals#violatedCondition(List, Order)}).
+ * <p>Placements are numbered by size and combinatorial rank, and the ranges of placements are split among the workers
+ * of a work-stealing pool. A placement is a bitmask of the generals, so up to 64 generals are supported.
+ * <p>When the traitors strategy is not index sensitive (see {@link TraitorStrategy#isIndexSensitive()}) and the
+ * algorithm treats the lieutenants alike, the outcome of a placement only depends on the loyalty of the commander and
+ * the number of traitorous lieutenants, so only one placement of each class runs. Index sensitive strategies, as the
+ * default {@link TraitorStrategy#ODD_INDEX}, are not reduced: the index of a lieutenant changes in every sub-problem of
+ * OM(m), so not even its parity is preserved by a permutation.
+ */
+public class PlacementVerifier {
+
+    /**
+     * Ranges with less placements than this run on a single worker.
+     */
+    private static final long SEQUENTIAL_PLACEMENTS = 8;
+
+    private static final long[][] BINOMIALS = binomials(Long.SIZE);
+
+    private final int totalGenerals;
+    private final int m;
+    private final TraitorStrategy strategy;
+    private final Supplier<Algorithm> algorithm;
+    private final boolean symmetric;
+
+    private final LongAdder executions = new LongAdder();
+
+    /**
+     * Constructs the verifier.
+     *
+     * @param totalGenerals The number of generals, the first one being the commander.
+     * @param m The recursion level, also the maximum number of traitors.
+     * @param strategy The strategy of the traitors.
+     * @param algorithm The supplier of the algorithm, a new one for every placement.
+     * @param symmetric True if the algorithm treats the lieutenants alike, as OM(m) and SM(m) (but not Phase-King,
+     *                  which takes its kings in order), so placements may be reduced.
+     * @throws IllegalArgumentException If there are more than 64 generals.
+     */
+    public PlacementVerifier(int totalGenerals, int m, TraitorStrategy strategy, Supplier<Algorithm> algorithm, boolean symmetric) {
+        if (totalGenerals > Long.SIZE) {
+            throw new IllegalArgumentException(String.format("Placement verification supports up to %d generals", Long.SIZE));
+        }
+        this.totalGenerals = totalGenerals;
+        this.m = m;
+        this.strategy = strategy;
+        this.algorithm = algorithm;
+        this.symmetric = symmetric;
+    }
+
+    /**
+     * Runs every placement on a pool.
+     *
+     * @param commanderOrder The order of the commander.
+     * @param pool The pool running the placements.
+     * @return The violations, by number of traitors and placement.
+     */
+    public List<Violation> verify(Order commanderOrder, ForkJoinPool pool) {
+        Queue<Violation> violations = new ConcurrentLinkedQueue<>();
+        List<RecursiveAction> tasks = new ArrayList<>();
+        for (int traitors = 0; traitors <= Math.min(m, totalGenerals); traitors++) {
+            if (isReduced()) {
+                // the commander loyal, then the commander traitor
+                tasks.add(new Placements(commanderOrder, traitors, 0, 0, violations));
+                tasks.add(new Placements(commanderOrder, traitors, 1, 1, violations));
+            } else {
+                tasks.add(new Placements(commanderOrder, traitors, 0, binomial(totalGenerals, traitors), violations));
+            }
+        }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        List<Violation> sorted = new ArrayList<>(violations);
+        sorted.sort(Comparator.comparingInt((Violation violation) -> Long.bitCount(violation.placement))
+                .thenComparing((a, b) -> Long.compareUnsigned(Long.reverse(b.placement), Long.reverse(a.placement))));
+        return sorted;
+    }
+
+    /**
+     * @return True if only one placement of each class runs.
+     */
+    public boolean isReduced() {
+        return symmetric && !strategy.isIndexSensitive();
+    }
+
+    /**
+     * @return The number of placements of up to 'm' traitors.
+     */
+    public long getPlacements() {
+        long placements = 0;
+        for (int traitors = 0; traitors <= Math.min(m, totalGenerals); traitors++) {
+            placements += binomial(totalGenerals, traitors);
+        }
+        return placements;
+    }
+
+    /**
+     * @return The number of placements run, over all verifications.
+     */
+    public long getExecutions() {
+        return executions.sum();
+    }
+
+    /**
+     * Runs the algorithm on a placement.
+     *
+     * @return The violated condition, or null.
+     */
+    private String execute(Order commanderOrder, long placement) {
+        List<General> generals = new ArrayList<>(totalGenerals);
+        for (int id = 0; id < totalGenerals; id++) {
+            General general = new General(id, "G" + id, (placement & (1L << id)) == 0);
+            general.setStrategy(strategy);
+            generals.add(general);
+        }
+        General commander = generals.get(0);
+        commander.setOrder(commanderOrder);
+        algorithm.get().execute(commander, generals.subList(1, totalGenerals), m);
+        executions.increment();
+        return ByzantineGenerals.violatedCondition(generals, commanderOrder);
+    }
+
+    static long binomial(int n, int k) {
+        return k < 0 || k > n ? 0 : BINOMIALS[n][k];
+    }
+
+    private static long[][] binomials(int size) {
+        long[][] binomials = new long[size + 1][];
+        for (int n = 0; n <= size; n++) {
+            binomials[n] = new long[n + 1];
+            binomials[n][0] = binomials[n][n] = 1;
+            for (int k = 1; k < n; k++) {
+                binomials[n][k] = binomials[n - 1][k - 1] + binomials[n - 1][k];
+            }
+        }
+        return binomials;
+    }
+
+    /**
+     * Gets the placement of a rank, among the placements of 'k' traitors in lexicographic order.
+     *
+     * @return The bitmask of the traitors.
+     */
+    static long placement(int n, int k, long rank) {
+        long placement = 0;
+        int id = 0;
+        for (int i = 0; i < k; i++) {
+            while (binomial(n - id - 1, k - i - 1) <= rank) {
+                rank -= binomial(n - id - 1, k - i - 1);
+                id++;
+            }
+            placement |= 1L << id++;
+        }
+        return placement;
+    }
+
+    /**
+     * A range of ranks of the placements of 'traitors' traitors, or a class of placements when reduced.
+     */
+    private class Placements extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Order commanderOrder;
+        private final int traitors;
+        private final long from;
+        private final long to;
+        private final Queue<Violation> violations;
+
+        /**
+         * @param from The first rank, or when reduced the number of traitorous commanders (0 or 1)
+         * @param to The rank after the last one, or when reduced the same as from
+         */
+        Placements(Order commanderOrder, int traitors, long from, long to, Queue<Violation> violations) {
+            this.commanderOrder = commanderOrder;
+            this.traitors = traitors;
+            this.from = from;
+            this.to = to;
+            this.violations = violations;
+        }
+
+        @Override
+        protected void compute() {
+            if (isReduced()) {
+                int commander = (int) from;
+                int lieutenants = traitors - commander;
+                if (lieutenants < 0 || lieutenants > totalGenerals - 1) {
+                    return;
+                }
+                long placement = ((1L << lieutenants) - 1) << 1 | commander;  // the first lieutenants
+                String condition = execute(commanderOrder, placement);
+                if (condition != null) {
+                    violations.add(new Violation(placement, condition, binomial(totalGenerals - 1, lieutenants)));
+                }
+            } else if (to - from > SEQUENTIAL_PLACEMENTS) {
+                long middle = (from + to) >>> 1;
+                invokeAll(new Placements(commanderOrder, traitors, from, middle, violations),
+                        new Placements(commanderOrder, traitors, middle, to, violations));
+            } else {
+                for (long rank = from; rank < to; rank++) {
+                    long placement = placement(totalGenerals, traitors, rank);
+                    String condition = execute(commanderOrder, placement);
+                    if (condition != null) {
+                        violations.add(new Violation(placement, condition, 1));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * A placement of traitors violating a interactive consistency condition.
+     */
+    public static class Violation {
+
+        private final long placement;
+        private final BitSet traitors;
+        private final String condition;
+        private final long placements;
+
+        Violation(long placement, String condition, long placements) {
+            this.placement = placement;
+            this.traitors = BitSet.valueOf(new long[]{placement});
+            this.condition = condition;
+            this.placements = placements;
+        }
+
+        /**
+         * @return The ids of the traitors.
+         */
+        public BitSet getTraitors() {
+            return (BitSet) traitors.clone();
+        }
+
+        /**
+         * @return The violated condition, IC1 or IC2.
+         */
+        public String getCondition() {
+            return condition;
+        }
+
+        /**
+         * @return The number of placements equivalent to this one (1 unless reduced), all of them violating the
+         * condition.
+         */
+        public long getPlacements() {
+            return placements;
+        }
+
+        @Override
+        public String toString() {
+            return "Violation{" +
+                    "traitors=" + traitors +
+                    ", condition=" + condition +
+                    ", placements=" + placements +
+                    '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PlacementVerifier{" +
+                "generals=" + totalGenerals +
+                ", m=" + m +
+                ", strategy=" + strategy +
+                ", reduced=" + isReduced() +
+                ", executions=" + getExecutions() +
+                '}';
+    }
+}
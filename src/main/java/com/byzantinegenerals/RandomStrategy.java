@@ -0,0 +1,55 @@
+package com.byzantinegenerals;
+
+/**
+ * Sends random orders, hashing the seed, the path and the index of the receiver, so the orders are reproducible
+ * whatever the order (or the thread) the messages are sent in.
+ */
+class RandomStrategy implements TraitorStrategy {
+
+    private final long seed;
+
+    RandomStrategy(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public Order order(Order order, int index, int count, int level, int rank) {
+        return (orders(order, index, count, level, rank) & 1) != 0 ? Order.ATTACK : Order.RETREAT;
+    }
+
+    /**
+     * Draws the 64 orders of a word at once.
+     */
+    @Override
+    public long orders(Order order, int index, int count, int level, int rank) {
+        long word = mix(seed ^ mix(((long) level << 32) ^ (rank & 0xFFFFFFFFL)));
+        int position = index - 1;   // the receiver 'index' gets the bit 'index - 1' of the path
+        long bits = mix(word + position / Long.SIZE);
+        int shift = position % Long.SIZE;
+        if (shift == 0) {
+            return bits;
+        }
+        return bits >>> shift | mix(word + position / Long.SIZE + 1) << (Long.SIZE - shift);
+    }
+
+    @Override
+    public boolean isPathSensitive() {
+        return true;
+    }
+
+    /**
+     * The finalizer of SplitMix64.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public String toString() {
+        return "RandomStrategy{" +
+                "seed=" + seed +
+                '}';
+    }
+}
@@ -0,0 +1,15 @@
+package com.byzantinegenerals;
+
+/**
+ * Defines the receiver of orders: a officer, or a adapter delivering the orders to one (a mailbox, a socket, a
+ * simulated link).
+ */
+public interface Receiver {
+
+    int getId();
+
+    String getName();
+
+    void receiveOrder(Message message);
+
+}
@@ -0,0 +1,62 @@
+package com.byzantinegenerals;
+
+import java.util.Arrays;
+
+/**
+ * Signatures of a signed message, in the order the generals signed it (e.g. v:0:j1:j2).
+ * <p>Each signature covers the previous one, so only the last signature is kept along with the list of signers: it
+ * can be verified by recomputing the chain from the order (see {@link Signer}).
+ */
+public final class SignatureChain {
+
+    private final int[] signers;
+    private final byte[] signature;
+
+    SignatureChain(int[] signers, byte[] signature) {
+        this.signers = signers;
+        this.signature = signature;
+    }
+
+    /**
+     * @return The number of signatures.
+     */
+    public int size() {
+        return signers.length;
+    }
+
+    /**
+     * @param index The position of the signature, 0 being the commander's.
+     * @return The index of the general that signed at that position.
+     */
+    public int getSigner(int index) {
+        return signers[index];
+    }
+
+    /**
+     * @param general The index of a general.
+     * @return true if the general signed the message.
+     */
+    public boolean isSignedBy(int general) {
+        for (int signer : signers) {
+            if (signer == general) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int[] getSigners() {
+        return signers;
+    }
+
+    byte[] getSignature() {
+        return signature;
+    }
+
+    @Override
+    public String toString() {
+        return "SignatureChain{" +
+                "signers=" + Arrays.toString(signers) +
+                '}';
+    }
+}
@@ -0,0 +1,108 @@
+package com.byzantinegenerals;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Signs and verifies the orders of signed messages, a local stand-in for public key signatures.
+ * <p>Every general has a secret HMAC key. The commander signs the order itself, and each lieutenant relaying it signs
+ * the previous signature, truncated to {@link #SIGNATURE_LENGTH} bytes. A verifier holding every key recomputes the
+ * chain, so a general can neither alter the order nor remove a signature without being detected.
+ * <p>Not thread-safe.
+ */
+public class Signer {
+
+    public static final String ALGORITHM = "HmacSHA256";
+    public static final int SIGNATURE_LENGTH = 16;
+
+    private final Mac[] macs;
+
+    /**
+     * Constructs the signer with random keys.
+     *
+     * @param generals The number of generals.
+     */
+    public Signer(int generals) {
+        this(generals, new SecureRandom());
+    }
+
+    /**
+     * Constructs the signer.
+     *
+     * @param generals The number of generals.
+     * @param random The source of the keys.
+     * @throws IllegalStateException If the JDK does not provide {@link #ALGORITHM}.
+     */
+    public Signer(int generals, Random random) {
+        this.macs = new Mac[generals];
+        try {
+            for (int i = 0; i < generals; i++) {
+                byte[] key = new byte[32];
+                random.nextBytes(key);
+                macs[i] = Mac.getInstance(ALGORITHM);
+                macs[i].init(new SecretKeySpec(key, ALGORITHM));
+            }
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    /**
+     * @return The number of generals with a key.
+     */
+    public int size() {
+        return macs.length;
+    }
+
+    /**
+     * Signs a order as the commander of a signed message.
+     *
+     * @param signer The index of the commander.
+     * @param order The order.
+     * @return The chain with the commander's signature.
+     */
+    public SignatureChain sign(int signer, Order order) {
+        return new SignatureChain(new int[]{signer}, mac(signer, new byte[]{(byte) order.ordinal()}));
+    }
+
+    /**
+     * Adds the signature of a general relaying a signed message.
+     *
+     * @param chain The chain of the received message.
+     * @param signer The index of the relaying general.
+     * @return The chain with the signature appended.
+     */
+    public SignatureChain countersign(SignatureChain chain, int signer) {
+        int[] signers = Arrays.copyOf(chain.getSigners(), chain.size() + 1);
+        signers[chain.size()] = signer;
+        return new SignatureChain(signers, mac(signer, chain.getSignature()));
+    }
+
+    /**
+     * @param order The order of a message.
+     * @param chain The signatures of the message.
+     * @return true if the chain was signed for the order by its signers.
+     */
+    public boolean verify(Order order, SignatureChain chain) {
+        if (order == null || chain == null || chain.size() == 0) {
+            return false;
+        }
+        byte[] signature = new byte[]{(byte) order.ordinal()};
+        for (int signer : chain.getSigners()) {
+            if (signer < 0 || signer >= macs.length) {
+                return false;
+            }
+            signature = mac(signer, signature);
+        }
+        return MessageDigest.isEqual(signature, chain.getSignature());
+    }
+
+    private byte[] mac(int signer, byte[] data) {
+        return Arrays.copyOf(macs[signer].doFinal(data), SIGNATURE_LENGTH);
+    }
+}
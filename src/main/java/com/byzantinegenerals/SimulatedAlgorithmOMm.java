@@ -0,0 +1,216 @@
+package com.byzantinegenerals;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Algorithm OM(m), executed on a simulated network with latency, message loss and timeouts.
+ * <p>The generals send their orders through a {@link General.Courier} which schedules each delivery on a
+ * {@link EventQueue}, at the simulated time drawn from the {@link NetworkModel}. A lieutenant relays every order as
+ * soon as it is delivered, and decides once it got every order it expects. Deliveries are handled by the level and
+ * rank of their path, so the simulation allocates no Path, Message or list per event.
+ * <p>Orders of level 'k' have a deadline of '(k + 1) * timeout' after the commander's order. A lost order, or one
+ * arriving after its deadline, is replaced by RETREAT at the deadline, as a lieutenant that "receives no value" uses
+ * RETREAT [OM(m), step 2]. With no loss and latencies below the timeout, the lieutenants decide the same orders as in
+ * the recursive OM(m).
+ */
+public class SimulatedAlgorithmOMm implements Algorithm {
+
+    private static final Logger LOGGER = LogManager.getLogger(SimulatedAlgorithmOMm.class);
+
+    private final NetworkModel network;
+    private final long timeout;
+    private final long seed;
+    private final General.Courier courier = this::transmit;
+
+    private EventQueue queue;
+    private SplittableRandom random;
+    private NetworkModel.Link[][] links;
+    private int relayer;    // the position of the general sending orders through the courier
+    private long now;
+
+    private LatencyHistogram decisions = new LatencyHistogram();
+    private long events;
+    private long messages;
+    private long lost;
+    private long late;
+
+    /**
+     * Constructs the algorithm on a network of links with a latency between 1 and 5 milliseconds, no loss, and a
+     * timeout of 10 milliseconds.
+     */
+    public SimulatedAlgorithmOMm() {
+        this(new NetworkModel(NetworkModel.Latency.uniform(1_000_000, 5_000_000), 0), 10_000_000, 0);
+    }
+
+    /**
+     * Constructs the algorithm.
+     *
+     * @param network The latency and loss of the links.
+     * @param timeout The nanoseconds a lieutenant waits for the orders of a level.
+     * @param seed The seed of the latencies and losses, the same seed simulates the same execution.
+     * @throws IllegalArgumentException If the timeout is not positive.
+     */
+    public SimulatedAlgorithmOMm(NetworkModel network, long timeout, long seed) {
+        if (timeout <= 0) {
+            throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+        }
+        this.network = network;
+        this.timeout = timeout;
+        this.seed = seed;
+    }
+
+    @Override
+    public void execute(General commander, List<General> lieutenants, int m) {
+        int count = lieutenants.size();
+        if (timeout > Long.MAX_VALUE / (m + 1)) {
+            throw new IllegalArgumentException(String.format("Timeout %d overflows the deadline of level %d", timeout, m));
+        }
+        General[] generals = new General[count + 1];
+        generals[0] = commander;
+        for (int i = 1; i <= count; i++) {
+            generals[i] = lieutenants.get(i - 1);
+            generals[i].prepare(count, m);
+        }
+
+        // the link of each general to every lieutenant
+        links = new NetworkModel.Link[count + 1][count + 1];
+        for (int sender = 0; sender <= count; sender++) {
+            for (int receiver = 1; receiver <= count; receiver++) {
+                links[sender][receiver] = network.link(sender, receiver);
+            }
+        }
+
+        // every order of the levels 0..m the lieutenant was not on the path of
+        long expected = 0;
+        for (int level = 0; level <= m; level++) {
+            expected += InformationTree.size(count - 1, level);
+        }
+        long[] received = new long[count + 1];
+
+        // the lieutenants of a path, and the indexes of the lieutenants that relayed it
+        int[] receivers = new int[count];
+        int[] indexes = new int[m + 1];
+
+        queue = new EventQueue();
+        random = new SplittableRandom(seed);
+        now = 0;
+        decisions = new LatencyHistogram();
+        events = 0;
+        messages = 0;
+        lost = 0;
+        late = 0;
+
+        // (1) The commander sends his value to every lieutenant
+        for (int i = 0; i < count; i++) {
+            receivers[i] = i + 1;
+        }
+        relayer = 0;
+        commander.sendOrders(courier, receivers, count, 0, 0);
+
+        // (2) Each lieutenant receives the orders, relaying those of the levels below m
+        while (queue.poll()) {
+            now = queue.getTime();
+            events++;
+            int receiver = queue.getReceiver();
+            int level = queue.getLevel();
+            int rank = queue.getRank();
+            General lieutenant = generals[receiver];
+            lieutenant.receiveOrder(generals[queue.getSender()], level, rank, queue.getOrder());
+
+            if (level < m) {
+                // Lieutenant i acts as the commander in Algorithm OM(m - k) for the path
+                int width = Path.lieutenants(count, level, rank, receivers, indexes);
+                int index = 0;
+                while (receivers[index] != receiver - 1) {
+                    index++;
+                }
+                System.arraycopy(receivers, index + 1, receivers, index, width - index - 1);
+                for (int i = 0; i < width - 1; i++) {
+                    receivers[i]++;     // positions in generals, after the commander
+                }
+                relayer = receiver;
+                lieutenant.sendOrders(courier, receivers, width - 1, level + 1, rank * width + index);
+            }
+
+            // (3) Once every order is received, the lieutenant uses the majority
+            if (++received[receiver] == expected) {
+                lieutenant.majorityOrder();
+                decisions.record(now);
+            }
+        }
+
+        if (General.MESSAGE_LOGGING) {
+            LOGGER.info("Simulated OM({}) in {} ns: {} events, {} messages, {} lost, {} late", m, now, events, messages, lost, late);
+        }
+        queue = null;
+        random = null;
+        links = null;
+    }
+
+    /**
+     * Schedules the delivery of a order sent by the relayer, or its replacement by RETREAT at the deadline.
+     */
+    private void transmit(int receiver, int level, int rank, Order order) {
+        long deadline = (level + 1) * timeout;
+        long delay = links[relayer][receiver].delay(random);
+        messages++;
+        if (delay < 0) {
+            lost++;
+            queue.add(deadline, receiver, relayer, level, rank, Order.RETREAT);
+        } else if (now + delay > deadline) {
+            late++;
+            queue.add(deadline, receiver, relayer, level, rank, Order.RETREAT);
+        } else {
+            queue.add(now + delay, receiver, relayer, level, rank, order);
+        }
+    }
+
+    /**
+     * @return The simulated nanoseconds each lieutenant took to decide, in the last execution.
+     */
+    public LatencyHistogram getDecisions() {
+        return decisions;
+    }
+
+    /**
+     * @return The simulated nanoseconds of the last execution, until the last lieutenant decided.
+     */
+    public long getTime() {
+        return now;
+    }
+
+    /**
+     * @return The deliveries processed in the last execution, replaced orders included.
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    public long getMessages() {
+        return messages;
+    }
+
+    public long getLost() {
+        return lost;
+    }
+
+    /**
+     * @return The messages of the last execution arriving after their deadline.
+     */
+    public long getLate() {
+        return late;
+    }
+
+    @Override
+    public String toString() {
+        return "SimulatedAlgorithmOMm{" +
+                "network=" + network +
+                ", timeout=" + timeout +
+                ", seed=" + seed +
+                '}';
+    }
+}
@@ -0,0 +1,392 @@
+package com.byzantinegenerals;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs OM(m) for every cell of a grid of generals, recursion levels, commander orders and traitor seeds, streaming a
+ * row per cell to a file.
+ * <p>A grid is specified as 'n=4..13;m=1..3;order=ATTACK,RETREAT;seed=0..9', each dimension a list of values or
+ * ranges (order and seed are optional, ATTACK and 0 by default). The cells are numbered in the order of the
+ * dimensions, the seed varying fastest, and cells with less than m + 2 generals are skipped. Each cell builds its
+ * generals with {@link ByzantineGenerals.Builder}, the traitors selected from the seed, and reports its decision, the
+ * violated condition, and the {@link Metrics} of the execution.
+ * <p>Cells run in parallel, at most 'window' at once, and each row is written and flushed as soon as its cell
+ * completes, so the memory is bounded whatever the grid and a interrupted sweep loses at most the running cells.
+ * Resuming a sweep reads the cells already in the file (as a bit set) and skips them.
+ * <p>The file starts with two lines: the grid, and the columns. Files ending in '.csv' hold a comma-separated row per
+ * line. Other files hold fixed-size little-endian records (see {@link #COLUMNS}), and start with a line of
+ * {@link #PREFIX_BYTES} bytes giving the size of the header, i.e. the offset of the first record, so the records can be
+ * loaded directly, e.g. with numpy.fromfile.
+ */
+public class Sweep {
+
+    /**
+     * The columns of the binary records, as numpy types.
+     */
+    static final String COLUMNS = "cell:<i8,seed:<i8,messages:<i8,majorities:<i8,nanos:<i8,allocated:<i8," +
+            "n:<i4,m:<i4,order:<i4,decision:<i4,violation:<i4";
+
+    static final int RECORD_BYTES = 6 * Long.BYTES + 5 * Integer.BYTES;
+
+    /**
+     * The size of the first line of the binary files, '# ' and the size of the header as 13 digits.
+     */
+    static final int PREFIX_BYTES = 16;
+
+    private static final String CSV_COLUMNS = "cell,seed,messages,majorities,nanos,allocated,n,m,order,decision,violation";
+
+    private final Values generals;
+    private final Values levels;
+    private final Order[] orders;
+    private final Values seeds;
+    private final Supplier<Algorithm> algorithm;
+    private final TraitorStrategy strategy;
+    private final long cells;
+
+    private long skipped;
+
+    /**
+     * Constructs a sweep.
+     *
+     * @param spec The grid, e.g. 'n=4..13;m=1..3;order=ATTACK,RETREAT;seed=0..9'.
+     * @param algorithm Supplies the algorithm executed by each cell.
+     * @param strategy The strategy of the traitors.
+     * @throws IllegalArgumentException If the grid is invalid.
+     */
+    public Sweep(String spec, Supplier<Algorithm> algorithm, TraitorStrategy strategy) {
+        String generals = null;
+        String levels = null;
+        String orders = "ATTACK";
+        String seeds = "0";
+        for (String dimension : spec.split(";")) {
+            String[] keyValue = dimension.trim().split("=", 2);
+            if (keyValue.length != 2) {
+                throw new IllegalArgumentException("Invalid dimension: " + dimension);
+            }
+            switch (keyValue[0].trim()) {
+                case "n":
+                    generals = keyValue[1];
+                    break;
+                case "m":
+                    levels = keyValue[1];
+                    break;
+                case "order":
+                    orders = keyValue[1];
+                    break;
+                case "seed":
+                    seeds = keyValue[1];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown dimension: " + keyValue[0]);
+            }
+        }
+        if (generals == null || levels == null) {
+            throw new IllegalArgumentException("The grid needs the n and m dimensions: " + spec);
+        }
+        this.generals = new Values(generals, Integer.MAX_VALUE);
+        this.levels = new Values(levels, Integer.MAX_VALUE);
+        this.orders = Arrays.stream(orders.split(",")).map(order -> Order.valueOf(order.trim())).toArray(Order[]::new);
+        this.seeds = new Values(seeds, Long.MAX_VALUE);
+        this.algorithm = algorithm;
+        this.strategy = strategy;
+        long cells = Long.MAX_VALUE;
+        try {
+            cells = Math.multiplyExact(Math.multiplyExact(this.generals.size(), this.levels.size()),
+                    Math.multiplyExact(this.orders.length, this.seeds.size()));
+        } catch (ArithmeticException e) {
+            // more cells than a long, refused below
+        }
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("The grid has %d cells, more than %d", cells, Integer.MAX_VALUE));
+        }
+        this.cells = cells;
+    }
+
+    /**
+     * @return The number of cells of the grid, skipped ones included.
+     */
+    public long getCells() {
+        return cells;
+    }
+
+    /**
+     * @return The cells skipped by the last run, already in the file or with too few generals.
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Runs the cells not in the file yet, appending their rows.
+     *
+     * @param file The file of the rows, created if it does not exist.
+     * @param executor The executor running the cells.
+     * @param window The most cells running or waiting to run at once.
+     * @return The number of cells run.
+     * @throws IllegalArgumentException If the file holds the rows of another grid or format.
+     * @throws IllegalStateException If a cell fails, after the running cells complete.
+     * @throws IOException If the file cannot be read or written.
+     * @throws InterruptedException If interrupted while waiting for the cells.
+     */
+    public long run(File file, ExecutorService executor, int window) throws IOException, InterruptedException {
+        boolean csv = file.getName().endsWith(".csv");
+        String header = "# " + this + "\n" + (csv ? CSV_COLUMNS : "# " + COLUMNS) + "\n";
+        if (!csv) {
+            header = String.format("# %013d\n", PREFIX_BYTES + header.getBytes(StandardCharsets.UTF_8).length) + header;
+        }
+        BitSet done = resume(file, header, csv);
+
+        skipped = 0;
+        long run = 0;
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Semaphore permits = new Semaphore(window);
+        try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+            output.seek(output.length());
+            if (output.length() == 0) {
+                output.write(header.getBytes(StandardCharsets.UTF_8));
+            }
+            OutputStream stream = Channels.newOutputStream(output.getChannel());
+            for (int cell = 0; cell < getCells() && failure.get() == null; cell++) {
+                int cellI = cell;
+                if (done.get(cell) || generals(cell) < levels(cell) + 2) {
+                    skipped++;
+                    continue;
+                }
+                permits.acquire();
+                executor.execute(() -> {
+                    try {
+                        byte[] row = runCell(cellI, csv);
+                        synchronized (stream) {
+                            stream.write(row);
+                            stream.flush();
+                        }
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        permits.release();
+                    }
+                });
+                run++;
+            }
+            permits.acquire(window);    // waits for the running cells
+            permits.release(window);
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Cell failed", failure.get());
+        }
+        return run;
+    }
+
+    /**
+     * Checks the header of a existing file, drops a row left incomplete by a interruption, and gets the cells already
+     * in the file.
+     */
+    private BitSet resume(File file, String header, boolean csv) throws IOException {
+        BitSet done = new BitSet();
+        if (!file.exists() || file.length() == 0) {
+            return done;
+        }
+        byte[] expected = header.getBytes(StandardCharsets.UTF_8);
+        long complete = expected.length;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            byte[] actual = new byte[expected.length];
+            try {
+                input.readFully(actual);
+            } catch (EOFException e) {
+                actual = new byte[0];
+            }
+            if (!Arrays.equals(expected, actual)) {
+                throw new IllegalArgumentException(String.format("%s is not a sweep of %s in this format", file, this));
+            }
+
+            if (csv) {
+                // the rows are ASCII, a byte per character
+                StringBuilder line = new StringBuilder();
+                for (int c = input.read(); c >= 0; c = input.read()) {
+                    line.append((char) c);
+                    if (c == '\n') {
+                        done.set(Integer.parseInt(line.substring(0, line.indexOf(","))));
+                        complete += line.length();
+                        line.setLength(0);
+                    }
+                }
+            } else {
+                byte[] record = new byte[RECORD_BYTES];
+                ByteBuffer buffer = ByteBuffer.wrap(record).order(ByteOrder.LITTLE_ENDIAN);
+                try {
+                    while (true) {
+                        input.readFully(record);
+                        done.set(Math.toIntExact(buffer.getLong(0)));
+                        complete += RECORD_BYTES;
+                    }
+                } catch (EOFException e) {
+                    // the last record is complete, or was left incomplete
+                }
+            }
+        }
+        if (complete < file.length()) {
+            try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+                output.setLength(complete);
+            }
+        }
+        return done;
+    }
+
+    /**
+     * Runs a cell, returning its row.
+     */
+    private byte[] runCell(int cell, boolean csv) {
+        long seed = seeds.get(cell % seeds.size());
+        Order order = orders[(int) (cell / seeds.size() % orders.length)];
+        int m = levels(cell);
+        int n = generals(cell);
+
+        Metrics metrics = new Metrics(n, m + 1);
+        ByzantineGenerals byzantineGenerals = new ByzantineGenerals.Builder(IntStream.range(0, n)
+                .mapToObj(i -> "G" + i)
+                .collect(Collectors.toList()))
+                .setCommanderOrder(order)
+                .setRecursionLevel(m)
+                .setAlgorithm(algorithm.get())
+                .setStrategy(strategy)
+                .setSeed(seed)
+                .setMetrics(metrics)
+                .build();
+        byzantineGenerals.executeAlgorithmOMm();
+        Order decision = byzantineGenerals.getDecision();
+        String condition = ByzantineGenerals.violatedCondition(byzantineGenerals.getGenerals(), order);
+        int violation = condition == null ? 0 : "IC1".equals(condition) ? 1 : 2;
+
+        if (csv) {
+            return String.format("%d,%d,%d,%d,%d,%d,%d,%d,%s,%s,%s%n", cell, seed, metrics.getMessages(), metrics.getMajorities(),
+                    metrics.getWallNanos(), metrics.getAllocatedBytes(), n, m, order, decision != null ? decision : "",
+                    condition != null ? condition : "").getBytes(StandardCharsets.UTF_8);
+        }
+        return ByteBuffer.allocate(RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(cell).putLong(seed).putLong(metrics.getMessages()).putLong(metrics.getMajorities())
+                .putLong(metrics.getWallNanos()).putLong(metrics.getAllocatedBytes())
+                .putInt(n).putInt(m).putInt(order.ordinal()).putInt(decision != null ? decision.ordinal() : -1).putInt(violation)
+                .array();
+    }
+
+    private int generals(int cell) {
+        return (int) generals.get(cell / seeds.size() / orders.length / levels.size());
+    }
+
+    private int levels(int cell) {
+        return (int) levels.get(cell / seeds.size() / orders.length % levels.size());
+    }
+
+    /**
+     * A list of values or ranges, e.g. '1,4..6', kept as ranges so a large range takes no memory.
+     */
+    private static final class Values {
+
+        private final long[] firsts;
+        private final long[] lasts;
+
+        // the index of the first value of each range
+        private final long[] offsets;
+        private final long size;
+
+        /**
+         * Parses the values, merging consecutive ones into ranges.
+         *
+         * @param max The largest value allowed.
+         * @throws IllegalArgumentException If a range is empty, or a value is larger than max.
+         */
+        Values(String values, long max) {
+            String[] ranges = values.split(",");
+            long[] firsts = new long[ranges.length];
+            long[] lasts = new long[ranges.length];
+            int count = 0;
+            for (String value : ranges) {
+                String[] range = value.trim().split("\\.\\.", 2);
+                long first = Long.parseLong(range[0].trim());
+                long last = range.length > 1 ? Long.parseLong(range[1].trim()) : first;
+                if (last < first) {
+                    throw new IllegalArgumentException("Empty range: " + value);
+                }
+                if (last > max || first < -max - 1) {
+                    throw new IllegalArgumentException(String.format("Value out of range: %s, at most %d", value, max));
+                }
+                if (count > 0 && lasts[count - 1] != Long.MAX_VALUE && first == lasts[count - 1] + 1) {
+                    lasts[count - 1] = last;
+                } else {
+                    firsts[count] = first;
+                    lasts[count++] = last;
+                }
+            }
+            this.firsts = Arrays.copyOf(firsts, count);
+            this.lasts = Arrays.copyOf(lasts, count);
+            this.offsets = new long[count];
+            long size = 0;
+            for (int i = 0; i < count; i++) {
+                offsets[i] = size;
+                long length = lasts[i] - firsts[i] + 1;   // not positive past Long.MAX_VALUE values
+                size = length <= 0 || size > Long.MAX_VALUE - length ? Long.MAX_VALUE : size + length;
+            }
+            this.size = size;
+        }
+
+        long size() {
+            return size;
+        }
+
+        /**
+         * @return The value at a index.
+         */
+        long get(long index) {
+            int range = Arrays.binarySearch(offsets, index);
+            if (range < 0) {
+                range = -range - 2;
+            }
+            return firsts[range] + (index - offsets[range]);
+        }
+
+        /**
+         * @return The values, in the syntax of the spec.
+         */
+        @Override
+        public String toString() {
+            StringBuilder joined = new StringBuilder();
+            for (int i = 0; i < firsts.length; i++) {
+                joined.append(i > 0 ? "," : "").append(firsts[i]);
+                if (lasts[i] > firsts[i]) {
+                    joined.append("..").append(lasts[i]);
+                }
+            }
+            return joined.toString();
+        }
+    }
+
+    /**
+     * @return The grid, in the syntax of the spec.
+     */
+    @Override
+    public String toString() {
+        return "n=" + generals +
+                ";m=" + levels +
+                ";order=" + Arrays.stream(orders).map(Order::name).collect(Collectors.joining(",")) +
+                ";seed=" + seeds;
+    }
+}
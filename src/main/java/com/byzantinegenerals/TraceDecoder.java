@@ -0,0 +1,169 @@
+package com.byzantinegenerals;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records of a trace file written by {@link TraceRecorder}, one at a time.
+ * <p>The records are mapped a window at a time, so files of any size are read (a single mapping is limited to 2 GB).
+ */
+public class TraceDecoder implements Closeable {
+
+    public static final int DEFAULT_WINDOW = 1 << 20;
+
+    private final FileChannel channel;
+    private final long count;
+    private final int window;
+
+    // the mapped window of records, and the index of the next record
+    private MappedByteBuffer records;
+    private long index;
+
+    private int sender;
+    private int receiver;
+    private int rank;
+    private int level;
+    private Order order;
+
+    /**
+     * Opens a trace file.
+     *
+     * @param file The trace file.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file is not a trace file.
+     */
+    public TraceDecoder(File file) throws IOException {
+        this(file, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Opens a trace file.
+     *
+     * @param file The trace file.
+     * @param window The number of records mapped at once.
+     * @throws IOException If the file cannot be read.
+     * @throws IllegalArgumentException If the file is not a trace file, or the window is not positive.
+     */
+    public TraceDecoder(File file, int window) throws IOException {
+        if (window <= 0 || window > Integer.MAX_VALUE / TraceRecorder.RECORD_SIZE) {
+            throw new IllegalArgumentException("Invalid window: " + window);
+        }
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        this.window = window;
+        if (channel.size() < TraceRecorder.RECORD_SIZE) {
+            channel.close();
+            throw new IllegalArgumentException(String.format("%s is not a trace file", file));
+        }
+        MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, TraceRecorder.RECORD_SIZE);
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getInt() != TraceRecorder.MAGIC) {
+            channel.close();
+            throw new IllegalArgumentException(String.format("%s is not a trace file", file));
+        }
+        short version = header.getShort();
+        short recordSize = header.getShort();
+        if (version != TraceRecorder.VERSION || recordSize != TraceRecorder.RECORD_SIZE) {
+            channel.close();
+            throw new IllegalArgumentException(String.format("Unsupported trace version %d (record size %d)", version, recordSize));
+        }
+        this.count = Math.min(header.getLong(), (channel.size() - TraceRecorder.RECORD_SIZE) / TraceRecorder.RECORD_SIZE);
+    }
+
+    /**
+     * @return The number of records.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return True if a record was read, or false at the end of the file.
+     * @throws UncheckedIOException If the next window cannot be mapped.
+     */
+    public boolean next() {
+        if (index >= count) {
+            return false;
+        }
+        if (records == null || !records.hasRemaining()) {
+            long size = Math.min(window, count - index) * TraceRecorder.RECORD_SIZE;
+            try {
+                records = channel.map(FileChannel.MapMode.READ_ONLY, TraceRecorder.RECORD_SIZE * (index + 1), size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            records.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        index++;
+        sender = records.getInt();
+        receiver = records.getInt();
+        rank = records.getInt();
+        level = records.getShort();
+        order = Order.values()[records.get()];
+        records.get();
+        return true;
+    }
+
+    public int getSender() {
+        return sender;
+    }
+
+    public int getReceiver() {
+        return receiver;
+    }
+
+    public int getRank() {
+        return rank;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "TraceDecoder{" +
+                "sender=" + sender +
+                ", receiver=" + receiver +
+                ", level=" + level +
+                ", rank=" + rank +
+                ", order=" + order +
+                '}';
+    }
+
+    /**
+     * Prints the records of a trace file, one per line: sender, receiver, level, rank and order.
+     *
+     * @param args 'file', the trace file
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Execution:\n java -cp ByzantineGenerals com.byzantinegenerals.TraceDecoder <file>");
+            System.exit(1);
+        }
+
+        try (TraceDecoder decoder = new TraceDecoder(new File(args[0]))) {
+            System.out.printf("# %d records%n", decoder.getCount());
+            while (decoder.next()) {
+                System.out.printf("%d %d %d %d %s%n", decoder.getSender(), decoder.getReceiver(),
+                        decoder.getLevel(), decoder.getRank(), decoder.getOrder());
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.byzantinegenerals;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records the messages exchanged by the generals as fixed-width binary records.
+ * <p>Records are appended to a preallocated direct buffer, written when full to the end of the file with a positional
+ * write, so no mapping is left behind however long the trace. The file starts with a header of {@link #RECORD_SIZE}
+ * bytes (magic, version, record size and number of records) followed by the records, each one holding the sender id,
+ * the receiver id, the path rank, the path level and the order.
+ * Files are read by {@link TraceDecoder}.
+ * <p>Recording is synchronized, so a recorder can be shared by generals receiving orders concurrently.
+ */
+public class TraceRecorder implements Closeable {
+
+    static final int MAGIC = 0x42475452; // "BGTR"
+    static final short VERSION = 1;
+    static final int RECORD_SIZE = 16;
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long count;
+    private boolean closed;
+
+    /**
+     * Constructs a recorder with a buffer of {@link #DEFAULT_CAPACITY} records.
+     *
+     * @param file The trace file, overwritten if it exists.
+     * @throws IOException If the file cannot be opened.
+     */
+    public TraceRecorder(File file) throws IOException {
+        this(file, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a recorder.
+     *
+     * @param file The trace file, overwritten if it exists.
+     * @param capacity The number of records of the buffer.
+     * @throws IOException If the file cannot be opened.
+     */
+    public TraceRecorder(File file, int capacity) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(capacity * RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        writeHeader();
+    }
+
+    /**
+     * Records a message.
+     *
+     * @param sender The sender id.
+     * @param receiver The receiver id.
+     * @param path The path of the order.
+     * @param order The order.
+     * @throws UncheckedIOException If the buffer is full and cannot be flushed.
+     */
+    public void record(int sender, int receiver, Path path, Order order) {
+        record(sender, receiver, path.getLevel(), path.getRank(), order);
+    }
+
+    /**
+     * Records a received order, the path given by its level and rank.
+     */
+    public synchronized void record(int sender, int receiver, int level, int rank, Order order) {
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+        buffer.putInt(sender)
+                .putInt(receiver)
+                .putInt(rank)
+                .putShort((short) level)
+                .put((byte) order.ordinal())
+                .put((byte) 0);
+        count++;
+    }
+
+    /**
+     * Flushes the buffer to the file.
+     *
+     * @throws UncheckedIOException If the records cannot be written.
+     */
+    public synchronized void flush() {
+        if (buffer.position() == 0) {
+            return;
+        }
+        try {
+            long position = RECORD_SIZE + (count - buffer.position() / RECORD_SIZE) * RECORD_SIZE;
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    private void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(MAGIC)
+                .putShort(VERSION)
+                .putShort((short) RECORD_SIZE)
+                .putLong(count);
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Flushes the pending records, writes the number of records to the header and closes the file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            writeHeader();
+        } finally {
+            channel.close();
+        }
+    }
+}
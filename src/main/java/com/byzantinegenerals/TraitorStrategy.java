@@ -0,0 +1,115 @@
+package com.byzantinegenerals;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Defines the orders a traitor sends in place of the order it should relay.
+ * <p>A order is sent to the receivers of a path one index at a time (see {@link Officer#sendOrder(Receiver, int, Path)}),
+ * the receivers of a path numbered from 1 to 'count'. Strategies are only asked for the orders of traitors, and must be
+ * thread safe: the parallel algorithms ask them from many threads at once.
+ */
+public interface TraitorStrategy {
+
+    /**
+     * Relays the order to odd indexes inverted: the original rule of the generals.
+     */
+    TraitorStrategy ODD_INDEX = BuiltInStrategy.ODD_INDEX;
+
+    /**
+     * Relays the opposite order to every receiver.
+     */
+    TraitorStrategy ALWAYS_OPPOSITE = BuiltInStrategy.ALWAYS_OPPOSITE;
+
+    /**
+     * Ignores the order, sending ATTACK to the first half of the receivers and RETREAT to the other half: a traitorous
+     * commander does not look loyal even when it always gets the same order.
+     */
+    TraitorStrategy SPLIT_VOTE = BuiltInStrategy.SPLIT_VOTE;
+
+    /**
+     * Gets the order sent to a receiver.
+     *
+     * @param order The order this general should relay.
+     * @param index The index of the receiver, from 1 to count.
+     * @param count The number of receivers of the path.
+     * @param level The level of the path of the order.
+     * @param rank The rank of the path of the order, or 0 for algorithms without information trees.
+     * @return The order sent.
+     */
+    Order order(Order order, int index, int count, int level, int rank);
+
+    /**
+     * Gets the orders sent to up to 64 consecutive receivers, as a mask with the bit 'i' set when the receiver
+     * 'index + i' gets ATTACK. The bits after the last receiver are ignored.
+     * <p>The default implementation asks {@link #order(Order, int, int, int, int)} for each receiver.
+     */
+    default long orders(Order order, int index, int count, int level, int rank) {
+        long orders = 0;
+        for (int i = 0; i < Long.SIZE && index + i <= count; i++) {
+            if (Order.ATTACK.equals(order(order, index + i, count, level, rank))) {
+                orders |= 1L << i;
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * @return True if the orders depend on the rank of the path, so the same sub-problem of OM(m) may be decided
+     * differently on different paths.
+     */
+    default boolean isPathSensitive() {
+        return false;
+    }
+
+    /**
+     * @return True if the orders depend on the index of the receiver. Otherwise every receiver of a path gets the same
+     * order, and the generals can be permuted without changing the outcome of OM(m).
+     */
+    default boolean isIndexSensitive() {
+        return true;
+    }
+
+    /**
+     * Gets a strategy sending random orders, the same ones for the same seed and path.
+     *
+     * @param seed The seed of the orders.
+     * @return The strategy.
+     */
+    static TraitorStrategy random(long seed) {
+        return new RandomStrategy(seed);
+    }
+
+    /**
+     * Gets a strategy choosing another strategy for every path.
+     *
+     * @param choice Gets the index of the strategy of a path, given its level and rank.
+     * @param strategies The strategies to choose from.
+     * @return The strategy.
+     */
+    static TraitorStrategy perPath(IntBinaryOperator choice, TraitorStrategy... strategies) {
+        return new PerPathStrategy(choice, strategies);
+    }
+
+    /**
+     * Gets a built-in strategy by name.
+     *
+     * @param name odd, opposite, split or random:'seed'
+     * @return The strategy.
+     * @throws IllegalArgumentException If the strategy is unknown.
+     */
+    static TraitorStrategy valueOf(String name) {
+        switch (name) {
+            case "odd":
+                return ODD_INDEX;
+            case "opposite":
+                return ALWAYS_OPPOSITE;
+            case "split":
+                return SPLIT_VOTE;
+            default:
+                if (name.startsWith("random:")) {
+                    return random(Long.parseLong(name.substring("random:".length())));
+                }
+                throw new IllegalArgumentException("Unknown traitor strategy: " + name);
+        }
+    }
+}
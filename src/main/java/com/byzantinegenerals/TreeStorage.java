@@ -0,0 +1,39 @@
+package com.byzantinegenerals;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Allocates the bit planes of the levels of the information trees.
+ * <p>Levels are allocated when a execution is prepared, or when its first order is received, and are released once
+ * resolved: heap and direct memory are reclaimed when the released planes are collected, and mapped regions are reused
+ * by the next allocations.
+ */
+public interface TreeStorage {
+
+    /**
+     * Planes on the heap (the default).
+     */
+    TreeStorage HEAP = HeapBitPlane::new;
+
+    /**
+     * Planes on direct buffers, outside of the heap.
+     */
+    TreeStorage OFF_HEAP = words -> new BufferBitPlane(ByteBuffer.allocateDirect(words << 3).order(ByteOrder.nativeOrder()));
+
+    /**
+     * Allocates a plane, all bits cleared.
+     *
+     * @param words The number of 64-bit words.
+     * @return The plane.
+     */
+    BitPlane allocate(int words);
+
+    /**
+     * Releases a plane that is not used anymore. By default, the plane is left to the garbage collector.
+     *
+     * @param plane A plane allocated by this storage.
+     */
+    default void release(BitPlane plane) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.byzantinegenerals;
+
+/**
+ * Aggregated statistics of Monte Carlo trials.
+ * <p>Only counters are kept, so statistics of any number of trials use constant memory. Statistics are not
+ * thread-safe: each thread aggregates its own and they are combined at the end.
+ */
+public class TrialStatistics {
+
+    // 95% confidence
+    private static final double Z = 1.96;
+
+    private long trials;
+    private long successes;
+    private final long[] decisions = new long[Order.values().length];
+    private long undecided;
+
+    /**
+     * Adds the result of a trial.
+     *
+     * @param success True if the mission was accomplished.
+     * @param decision The order executed by the majority of the generals, or null if there is no majority.
+     */
+    public void add(boolean success, Order decision) {
+        trials++;
+        if (success) {
+            successes++;
+        }
+        if (decision != null) {
+            decisions[decision.ordinal()]++;
+        } else {
+            undecided++;
+        }
+    }
+
+    /**
+     * Adds the results aggregated by other statistics.
+     */
+    public void combine(TrialStatistics other) {
+        trials += other.trials;
+        successes += other.successes;
+        for (int i = 0; i < decisions.length; i++) {
+            decisions[i] += other.decisions[i];
+        }
+        undecided += other.undecided;
+    }
+
+    public long getTrials() {
+        return trials;
+    }
+
+    public long getSuccesses() {
+        return successes;
+    }
+
+    /**
+     * @return The number of trials where the majority of the generals executed the order.
+     */
+    public long getDecisions(Order order) {
+        return decisions[order.ordinal()];
+    }
+
+    /**
+     * @return The number of trials where no order was executed by the majority of the generals.
+     */
+    public long getUndecided() {
+        return undecided;
+    }
+
+    public double getSuccessRate() {
+        return trials > 0 ? (double) successes / trials : 0;
+    }
+
+    /**
+     * @return The lower bound of the 95% (Wilson score) confidence interval of the success rate.
+     */
+    public double getSuccessRateLower() {
+        return wilson(-Z);
+    }
+
+    /**
+     * @return The upper bound of the 95% (Wilson score) confidence interval of the success rate.
+     */
+    public double getSuccessRateUpper() {
+        return wilson(Z);
+    }
+
+    private double wilson(double z) {
+        if (trials == 0) {
+            return z < 0 ? 0 : 1;
+        }
+        double p = getSuccessRate();
+        double z2 = z * z;
+        double center = p + z2 / (2 * trials);
+        double spread = z * Math.sqrt(p * (1 - p) / trials + z2 / (4.0 * trials * trials));
+        return Math.min(1, Math.max(0, (center + spread) / (1 + z2 / trials)));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TrialStatistics{trials=%d, successes=%d, successRate=%.6f [%.6f, %.6f], ATTACK=%d, RETREAT=%d, undecided=%d}",
+                trials, successes, getSuccessRate(), getSuccessRateLower(), getSuccessRateUpper(),
+                getDecisions(Order.ATTACK), getDecisions(Order.RETREAT), undecided);
+    }
+}
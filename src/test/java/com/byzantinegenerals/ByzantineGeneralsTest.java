@@ -8,6 +8,7 @@ import org.junit.jupiter.api.TestFactory;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
@@ -20,7 +21,14 @@ public class ByzantineGeneralsTest {
      * and (optionally) the list of traitors. If traitors are not specified, all generals are loyal.
      */
     private static ByzantineGenerals buildByzantineGenerals(int totalGenerals, Order order, int recursionLevel, int... traitors) {
-        ByzantineGenerals byzantineGenerals = buildByzantineGeneralsWithRandomTraitors(totalGenerals, order, recursionLevel);
+        return buildByzantineGenerals(new AlgorithmOMm(), totalGenerals, order, recursionLevel, traitors);
+    }
+
+    /**
+     * Build the ByzantineGenerals executing the given algorithm.
+     */
+    private static ByzantineGenerals buildByzantineGenerals(Algorithm algorithm, int totalGenerals, Order order, int recursionLevel, int... traitors) {
+        ByzantineGenerals byzantineGenerals = buildByzantineGeneralsWithRandomTraitors(algorithm, totalGenerals, order, recursionLevel);
 
         List<Integer> traitorsList = Arrays.stream(traitors).boxed().collect(Collectors.toList());
         for (int i = 0; i < totalGenerals; i++) {
@@ -37,13 +45,21 @@ public class ByzantineGeneralsTest {
      * Build the ByzantineGenerals with the number of generals (totalGenerals), the commander order, the recursionLevel.
      * <p>The number of traitors is equal the recursionLevel, random selected.
      */
-    private static ByzantineGenerals buildByzantineGeneralsWithRandomTraitors(int totalGenerals, Order order, int recursionLevel) {
+    private static ByzantineGenerals buildByzantineGeneralsWithRandomTraitors(Algorithm algorithm, int totalGenerals, Order order, int recursionLevel) {
         return new ByzantineGenerals.Builder(IntStream.range(0, totalGenerals).mapToObj(i -> "G" + i).collect(Collectors.toList()))
                 .setCommanderOrder(order)
                 .setRecursionLevel(recursionLevel)
+                .setAlgorithm(algorithm)
                 .build();
     }
 
+    /**
+     * Gets the order executed by each general.
+     */
+    private static List<Order> decisions(ByzantineGenerals byzantineGenerals) {
+        return byzantineGenerals.getGenerals().stream().map(General::getOrder).collect(Collectors.toList());
+    }
+
     /**
      * THEOREM 1. For any 'm', Algorithm OM(m) satisfies condition IC1 and IC2 if there are more than '3m' generals
      * and at most 'm' traitors.
@@ -85,5 +101,148 @@ public class ByzantineGeneralsTest {
                         })));
     }
 
-}
+    @TestFactory
+    public Stream<DynamicTest> dynamicTestsParallelDecidesAsSequential() {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        return IntStream.range(1, 3).boxed()
+                .flatMap(m -> generateTraitors(theoremOne(m) + 1, m + 1)   // more traitors than tolerated, so decisions differ
+                        .map(traitors -> DynamicTest.dynamicTest("total generals = " + (theoremOne(m) + 1) + ", m = " + m + ", traitors = " + Arrays.toString(traitors), () -> {
+                            ByzantineGenerals sequential = buildByzantineGenerals(theoremOne(m) + 1, Order.ATTACK, m, traitors);
+                            ByzantineGenerals parallel = buildByzantineGenerals(new ParallelAlgorithmOMm(pool, 0, 0), theoremOne(m) + 1, Order.ATTACK, m, traitors);
+                            Assertions.assertEquals(sequential.executeAlgorithmOMm(), parallel.executeAlgorithmOMm());
+                            Assertions.assertEquals(decisions(sequential), decisions(parallel));
+                        })));
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> dynamicTestsMemoizedDecidesAsSequential() {
+        return IntStream.range(1, 4).boxed()
+                .flatMap(m -> generateTraitors(theoremOne(m), m)
+                        .map(traitors -> DynamicTest.dynamicTest("total generals = " + theoremOne(m) + ", m = " + m + ", traitors = " + Arrays.toString(traitors), () -> {
+                            ByzantineGenerals sequential = buildByzantineGenerals(theoremOne(m), Order.RETREAT, m, traitors);
+                            ByzantineGenerals memoized = buildByzantineGenerals(new MemoizedAlgorithmOMm(), theoremOne(m), Order.RETREAT, m, traitors);
+                            Assertions.assertEquals(sequential.executeAlgorithmOMm(), memoized.executeAlgorithmOMm());
+                            Assertions.assertEquals(decisions(sequential), decisions(memoized));
+                        })));
+    }
+
+    @Test
+    public void testMemoizedReusesSubProblems() {
+        MemoizedAlgorithmOMm algorithm = new MemoizedAlgorithmOMm(1024);
+        ByzantineGenerals byzantineGenerals = buildByzantineGenerals(algorithm, 10, Order.ATTACK, 3, 0, 4, 7);
+        Assertions.assertTrue(byzantineGenerals.executeAlgorithmOMm());
+        Assertions.assertTrue(algorithm.getHits() > 0);
+        Assertions.assertTrue(algorithm.getLoyal() > 0);
+    }
 
+    @Test
+    public void testMemoizedClearsCacheWhenStrategiesChange() {
+        MemoizedAlgorithmOMm algorithm = new MemoizedAlgorithmOMm(1024);
+        for (String strategy : new String[]{"odd", "opposite", "odd"}) {
+            ByzantineGenerals sequential = buildByzantineGenerals(7, Order.ATTACK, 2, 0, 3, 5);
+            ByzantineGenerals memoized = buildByzantineGenerals(algorithm, 7, Order.ATTACK, 2, 0, 3, 5);
+            for (int i = 0; i < 7; i++) {
+                sequential.getGenerals().get(i).setStrategy(TraitorStrategy.valueOf(strategy));
+                memoized.getGenerals().get(i).setStrategy(TraitorStrategy.valueOf(strategy));
+            }
+            Assertions.assertEquals(sequential.executeAlgorithmOMm(), memoized.executeAlgorithmOMm());
+            Assertions.assertEquals(decisions(sequential), decisions(memoized), strategy);
+            Assertions.assertTrue(algorithm.getMisses() > 0, strategy);    // nothing reused from the previous strategy
+        }
+
+        // the same strategies again: the whole problem is cached, and the counters start over
+        ByzantineGenerals again = buildByzantineGenerals(algorithm, 7, Order.ATTACK, 2, 0, 3, 5);
+        again.executeAlgorithmOMm();
+        Assertions.assertEquals(1, algorithm.getHits());
+        Assertions.assertEquals(0, algorithm.getMisses());
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> dynamicTestsAsyncDecidesAsSequential() {
+        return IntStream.range(1, 3).boxed()
+                .flatMap(m -> generateTraitors(theoremOne(m) + 1, m + 1)
+                        .map(traitors -> DynamicTest.dynamicTest("total generals = " + (theoremOne(m) + 1) + ", m = " + m + ", traitors = " + Arrays.toString(traitors), () -> {
+                            ByzantineGenerals sequential = buildByzantineGenerals(theoremOne(m) + 1, Order.ATTACK, m, traitors);
+                            ByzantineGenerals async = buildByzantineGenerals(new AsyncAlgorithmOMm(), theoremOne(m) + 1, Order.ATTACK, m, traitors);
+                            Assertions.assertEquals(sequential.executeAlgorithmOMm(), async.executeAlgorithmOMm());
+                            Assertions.assertEquals(decisions(sequential), decisions(async));
+                        })));
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> dynamicTestsSignedMessagesWithMTraitors() {
+        return IntStream.range(1, 4).boxed()
+                .flatMap(m -> generateTraitors(m + 2, m)        // SM(m) copes with 'm' traitors out of any number of generals
+                        .map(traitors -> DynamicTest.dynamicTest("total generals = " + (m + 2) + ", m = " + m + ", traitors = " + Arrays.toString(traitors), () -> {
+                            ByzantineGenerals byzantineGenerals = buildByzantineGenerals(new AlgorithmSMm(), m + 2, Order.ATTACK, m, traitors);
+                            byzantineGenerals.executeAlgorithmOMm();
+                            assertLoyalLieutenantsAgree(byzantineGenerals, Order.ATTACK);
+                        })));
+    }
+
+    @Test
+    public void testSignedMessagesRejectAlteredOrders() {
+        AlgorithmSMm algorithm = new AlgorithmSMm();
+        ByzantineGenerals byzantineGenerals = buildByzantineGenerals(algorithm, 7, Order.ATTACK, 2, 2, 5);
+        Assertions.assertTrue(byzantineGenerals.executeAlgorithmOMm());
+        Assertions.assertTrue(algorithm.getRejected() > 0);
+        Assertions.assertTrue(algorithm.getMessages() <= 6 + 2 * 6 * 5);
+    }
+
+    /**
+     * Asserts the interactive consistency conditions on the loyal lieutenants.
+     */
+    private static void assertLoyalLieutenantsAgree(ByzantineGenerals byzantineGenerals, Order order) {
+        List<General> loyalLieutenants = byzantineGenerals.getGenerals().stream()
+                .skip(1).filter(General::isLoyal).collect(Collectors.toList());
+        // IC1: all loyal lieutenants obey the same order
+        Assertions.assertEquals(1, loyalLieutenants.stream().map(General::getOrder).distinct().count());
+        // IC2: if the commander is loyal, every loyal lieutenant obeys his order
+        if (byzantineGenerals.getGenerals().get(0).isLoyal()) {
+            Assertions.assertEquals(order, loyalLieutenants.get(0).getOrder());
+        }
+    }
+
+    @TestFactory
+    public Stream<DynamicTest> dynamicTestsPhaseKingWithMoreThan4MLieutenants() {
+        return IntStream.range(1, 4).boxed()
+                .flatMap(m -> generateTraitors(4 * m + 2, m)
+                        .map(traitors -> DynamicTest.dynamicTest("total generals = " + (4 * m + 2) + ", m = " + m + ", traitors = " + Arrays.toString(traitors), () -> {
+                            ByzantineGenerals byzantineGenerals = buildByzantineGenerals(new AlgorithmPhaseKing(), 4 * m + 2, Order.ATTACK, m, traitors);
+                            byzantineGenerals.executeAlgorithmOMm();
+                            assertLoyalLieutenantsAgree(byzantineGenerals, Order.ATTACK);
+                        })));
+    }
+
+    @Test
+    public void testPhaseKingWithHundredGenerals() {
+        ByzantineGenerals byzantineGenerals = new ByzantineGenerals.Builder(IntStream.range(0, 101).mapToObj(i -> "G" + i).collect(Collectors.toList()))
+                .setCommanderOrder(Order.ATTACK)
+                .setRecursionLevel(24)
+                .setAlgorithm(new AlgorithmPhaseKing())
+                .setSeed(1)
+                .build();
+        byzantineGenerals.executeAlgorithmOMm();
+        assertLoyalLieutenantsAgree(byzantineGenerals, Order.ATTACK);
+    }
+
+    @Test
+    public void testBuilderRejectsDuplicatedNames() {
+        ByzantineGenerals.Builder builder = new ByzantineGenerals.Builder("G0,G1,G2,G1")
+                .setCommanderOrder(Order.ATTACK)
+                .setRecursionLevel(1);
+        Assertions.assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    @Test
+    public void testBuilderSelectsMTraitorsAmongManyGenerals() {
+        ByzantineGenerals byzantineGenerals = new ByzantineGenerals.Builder(IntStream.range(0, 10000).mapToObj(i -> "G" + i).collect(Collectors.toList()))
+                .setCommanderOrder(Order.ATTACK)
+                .setRecursionLevel(2500)
+                .setSeed(3)
+                .build();
+        List<General> generals = byzantineGenerals.getGenerals();
+        Assertions.assertEquals(2500, generals.stream().filter(general -> !general.isLoyal()).count());
+        Assertions.assertTrue(IntStream.range(0, generals.size()).allMatch(i -> generals.get(i).getId() == i));
+    }
+}
@@ -0,0 +1,128 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class ConsensusServerTest {
+
+    private static final String JOB = "generals=G0,G1,G2,G3,G4,G5,G6&m=2&order=ATTACK&traitors=G2,G5";
+
+    /**
+     * Posts a job, returning the status and the body of the response.
+     */
+    private static String[] post(ConsensusServer server, String path, String form) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + server.getPort() + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        try (OutputStream output = connection.getOutputStream()) {
+            output.write(form.getBytes(StandardCharsets.UTF_8));
+        }
+        int status = connection.getResponseCode();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            byte[] buffer = new byte[1024];
+            for (int read = input.read(buffer); read >= 0; read = input.read(buffer)) {
+                body.write(buffer, 0, read);
+            }
+        }
+        return new String[]{String.valueOf(status), body.toString("UTF-8")};
+    }
+
+    @Test
+    public void shouldRunJobsAndCacheDeterministicResults() throws Exception {
+        ConsensusServer server = new ConsensusServer(0, 2, 8, 16);
+        server.start();
+        try {
+            String[] first = post(server, "/consensus", JOB);
+            String[] second = post(server, "/consensus", JOB);
+            String[] stats = post(server, "/stats", "");
+
+            Assertions.assertEquals("200", first[0]);
+            Assertions.assertTrue(first[1].startsWith("{\"decision\":\"ATTACK\",\"violation\":null,\"traitors\":[\"G2\",\"G5\"]"), first[1]);
+            Assertions.assertEquals(first[1], second[1]);
+            Assertions.assertEquals("{\"jobs\":2,\"hits\":1,\"rejected\":0,\"timedOut\":0,\"queued\":0,\"cached\":1}", stats[1]);
+            Assertions.assertEquals("400", post(server, "/consensus", "generals=G0,G1,G2,G3&m=1")[0]);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void shouldRefuseJobsWhenTheQueueIsFull() throws Exception {
+        ConsensusServer server = new ConsensusServer(0, 1, 1, 16);
+        server.start();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            server.getExecutor().execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            server.getExecutor().execute(() -> { });  // fills the queue
+
+            String[] refused = post(server, "/consensus", JOB);
+            Assertions.assertEquals("503", refused[0]);
+        } finally {
+            release.countDown();
+            server.stop();
+        }
+    }
+
+    @Test
+    public void shouldRefuseOversizedJobsAndEscapeNames() throws Exception {
+        ConsensusServer server = new ConsensusServer(0, 1, 8, 16);
+        server.start();
+        try {
+            StringBuilder generals = new StringBuilder("G0");
+            for (int i = 1; i < 40; i++) {
+                generals.append(",G").append(i);
+            }
+            String[] oversized = post(server, "/consensus", "generals=" + generals + "&m=6&order=ATTACK&seed=0");
+            Assertions.assertEquals("400", oversized[0]);
+            Assertions.assertTrue(oversized[1].contains("messages"), oversized[1]);
+            Assertions.assertEquals("400", post(server, "/consensus", "generals=G0,G1&m=2&order=ATTACK&seed=0")[0]);
+
+            String[] quoted = post(server, "/consensus", "generals=G0,G%221,G2,G3&m=1&order=ATTACK&traitors=G%221");
+            Assertions.assertEquals("200", quoted[0]);
+            Assertions.assertTrue(quoted[1].contains("\"traitors\":[\"G\\\"1\"]"), quoted[1]);
+        } finally {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void shouldCancelJobsThatTimeOut() throws Exception {
+        ConsensusServer server = new ConsensusServer(0, 1, 8, 16);
+        server.setTimeout(100, TimeUnit.MILLISECONDS);
+        server.start();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            server.getExecutor().execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+
+            String[] timedOut = post(server, "/consensus", JOB);
+            Assertions.assertEquals("504", timedOut[0]);
+            Assertions.assertTrue(post(server, "/stats", "")[1].contains("\"timedOut\":1"));
+        } finally {
+            release.countDown();
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ExecutionPlannerTest {
+
+    private static final long GIGABYTE = 1L << 30;
+
+    @Test
+    public void shouldEstimateMessagesAndTrees() {
+        Assertions.assertEquals(6 + 6 * 5 + 6 * 5 * 4, ExecutionPlanner.messages(6, 2));
+        // levels 1 and 2 of 6 lieutenants: 6 and 30 paths, a word per plane each
+        Assertions.assertEquals(6 * (2 * 8 + 2 * 8), ExecutionPlanner.treeBytes(6, 2));
+    }
+
+    @Test
+    public void shouldFailFastWhenInfeasible() {
+        ExecutionPlanner planner = new ExecutionPlanner(GIGABYTE, GIGABYTE, GIGABYTE, 8);
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> planner.plan(3, 1, true));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> planner.plan(12, 4, true));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> planner.plan(40, 6, true));
+    }
+
+    @Test
+    public void shouldChooseTheFastestEngineFittingTheBudgets() {
+        ExecutionPlanner sequential = new ExecutionPlanner(GIGABYTE, GIGABYTE, GIGABYTE, 1);
+        ExecutionPlanner parallel = new ExecutionPlanner(GIGABYTE, GIGABYTE, GIGABYTE, 8);
+
+        Assertions.assertEquals("om", sequential.plan(4, 1, true).getAlgorithm());
+        Assertions.assertEquals("memoized", sequential.plan(13, 4, true).getAlgorithm());
+        Assertions.assertEquals("om", sequential.plan(13, 4, false).getAlgorithm());
+        Assertions.assertEquals("parallel", parallel.plan(13, 4, false).getAlgorithm());
+        Assertions.assertEquals("heap", parallel.plan(13, 4, false).getStorage());
+
+        ExecutionPlanner.Plan offHeap = new ExecutionPlanner(1 << 20, GIGABYTE, GIGABYTE, 8).plan(30, 4, false);
+        Assertions.assertEquals("parallel", offHeap.getAlgorithm());
+        Assertions.assertEquals("offheap", offHeap.getStorage());
+        Assertions.assertEquals("mapped", new ExecutionPlanner(1 << 20, 1 << 20, GIGABYTE, 1).plan(30, 4, false).getStorage());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ExecutionPlanner(1 << 20, 1 << 20, 1 << 20, 1).plan(30, 4, false));
+    }
+}
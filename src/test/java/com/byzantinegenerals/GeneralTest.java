@@ -72,14 +72,29 @@ public class GeneralTest {
                 .anyMatch(general -> Objects.equals(Order.RETREAT, general.getOrder())));
     }
 
+    @Test
+    public void shouldSendOrdersAsScrambledByIndex() {
+        List<General> generals = buildGeneralList(131, 0);
+
+        General commander = generals.get(0);
+        commander.setOrder(Order.ATTACK);
+        List<General> lieutenants = generals.subList(1, generals.size());
+        commander.sendOrders(lieutenants, Path.root(lieutenants.size()));
+
+        for (int i = 0; i < lieutenants.size(); i++) {
+            Assertions.assertEquals(commander.scrambleOrder(Order.ATTACK, i + 1, lieutenants.size(), 0, 0), lieutenants.get(i).getOrder());
+        }
+    }
+
     @Test
     public void shouldCalculateMajorityForAllEqual() {
         List<General> generals =  buildGeneralList(4);
 
         General general = generals.get(0);
+        Path root = Path.root(generals.size() - 1);
         for (int i = 1; i < generals.size(); i++) {
             generals.get(i).setOrder(Order.ATTACK);
-            generals.get(i).sendOrder(general, i);
+            generals.get(i).sendOrder(general, i, root.child(i - 1));
         }
 
         Assertions.assertEquals(Order.ATTACK, general.majorityOrder());
@@ -90,12 +105,30 @@ public class GeneralTest {
         List<General> generals =  buildGeneralList(4);
 
         General general = generals.get(0);
+        Path root = Path.root(generals.size() - 1);
         for (int i = 1; i < generals.size(); i++) {
             generals.get(i).setOrder(i >= generals.size() / 2  ? Order.ATTACK : Order.RETREAT);
-            generals.get(i).sendOrder(general, i);
+            generals.get(i).sendOrder(general, i, root.child(i - 1));
         }
 
         Assertions.assertEquals(Order.ATTACK, general.majorityOrder());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void shouldRelayOrderReceivedForParentPath() {
+        List<General> generals =  buildGeneralList(4);
+
+        // G0 commands, G1 relays to G2 what it received from G0, and G2 relays to G3 what it received from G1
+        Path root = Path.root(3);
+        generals.get(0).setOrder(Order.ATTACK);
+        generals.get(0).sendOrder(generals.get(1), 1, root);
+        generals.get(1).sendOrder(generals.get(2), 1, root.child(0));
+        generals.get(2).sendOrder(generals.get(3), 1, root.child(0).child(0));
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(root, root.child(0).parent()),
+                () -> Assertions.assertEquals(root.child(0), root.child(0).child(0).parent()),
+                () -> Assertions.assertEquals(Order.ATTACK, generals.get(3).majorityOrder()));
+    }
+
+}
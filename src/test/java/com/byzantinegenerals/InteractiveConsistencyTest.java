@@ -0,0 +1,97 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class InteractiveConsistencyTest {
+
+    private static final List<TraitorStrategy> STRATEGIES = Arrays.asList(TraitorStrategy.ODD_INDEX,
+            TraitorStrategy.SPLIT_VOTE, TraitorStrategy.random(11));
+
+    private static List<General> generals(int totalGenerals, TraitorStrategy strategy, int... traitors) {
+        List<General> generals = IntStream.range(0, totalGenerals)
+                .mapToObj(i -> new General(i, "G" + i, Arrays.stream(traitors).noneMatch(t -> t == i)))
+                .collect(Collectors.toList());
+        generals.forEach(general -> general.setStrategy(strategy));
+        return generals;
+    }
+
+    private static List<Order> values(int totalGenerals) {
+        return IntStream.range(0, totalGenerals)
+                .mapToObj(i -> i % 3 == 0 ? Order.RETREAT : Order.ATTACK)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the agreement vectors of n executions of OM(m), the general 'c' commanding the execution 'c'.
+     */
+    private static Order[][] sequential(List<General> generals, List<Order> values, int m) {
+        Order[][] decisions = new Order[generals.size()][generals.size()];
+        for (int commander = 0; commander < generals.size(); commander++) {
+            List<General> instance = new ArrayList<>();
+            instance.add(new General(generals.get(commander)));
+            for (General general : generals) {
+                if (general != generals.get(commander)) {
+                    instance.add(new General(general));
+                }
+            }
+            new ByzantineGenerals(instance, values.get(commander), m, new AlgorithmOMm()).executeAlgorithmOMm();
+            for (General general : instance) {
+                decisions[general.getId()][commander] = general == instance.get(0) ? values.get(commander) : general.getOrder();
+            }
+        }
+        return decisions;
+    }
+
+    @TestFactory
+    public List<DynamicTest> shouldDecideAsSequentialInstances() {
+        List<DynamicTest> tests = new ArrayList<>();
+        int[][] traitors = {{}, {2}, {0, 5}, {1, 3, 4}};
+        for (TraitorStrategy strategy : STRATEGIES) {
+            for (int m = 0; m <= 3; m++) {
+                int n = 3 * m + 2;
+                int mI = m;
+                int[] traitorsI = Arrays.stream(traitors[m]).filter(t -> t < n).toArray();
+                tests.add(DynamicTest.dynamicTest(strategy + " n=" + n + " m=" + m, () -> {
+                    List<General> generals = generals(n, strategy, traitorsI);
+                    InteractiveConsistency consistency = new InteractiveConsistency(generals, mI);
+                    Order[][] decisions = consistency.execute(values(n));
+
+                    Assertions.assertArrayEquals(sequential(generals, values(n), mI), decisions);
+                    Assertions.assertEquals(n * ExecutionPlanner.messages(n - 1, mI), consistency.getOrders());
+                    Assertions.assertEquals((long) (mI + 1) * n * (n - 1), consistency.getBatches());
+                }));
+            }
+        }
+        return tests;
+    }
+
+    @Test
+    public void shouldAgreeOnTheVectorOfLoyalValues() {
+        int n = 10;
+        List<General> generals = generals(n, TraitorStrategy.ALWAYS_OPPOSITE, 3, 7, 8);
+        Order[][] decisions = new InteractiveConsistency(generals, 3).execute(values(n));
+
+        for (int general = 0; general < n; general++) {
+            if (!generals.get(general).isLoyal()) {
+                continue;
+            }
+            for (int commander = 0; commander < n; commander++) {
+                if (generals.get(commander).isLoyal()) {
+                    Assertions.assertEquals(values(n).get(commander), decisions[general][commander]);
+                } else {
+                    Assertions.assertEquals(decisions[0][commander], decisions[general][commander]);
+                }
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new InteractiveConsistency(generals(65, TraitorStrategy.ODD_INDEX), 1));
+    }
+}
@@ -0,0 +1,65 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class MetricsTest {
+
+    private static ByzantineGenerals buildByzantineGenerals(int totalGenerals, int recursionLevel, Metrics metrics) {
+        return new ByzantineGenerals.Builder(IntStream.range(0, totalGenerals).mapToObj(i -> "G" + i).collect(Collectors.toList()))
+                .setCommanderOrder(Order.ATTACK)
+                .setRecursionLevel(recursionLevel)
+                .setSeed(1)
+                .setMetrics(metrics)
+                .build();
+    }
+
+    @Test
+    public void shouldCountMessagesPerLevelAndGeneral() {
+        Metrics metrics = new Metrics(7, 3);
+        buildByzantineGenerals(7, 2, metrics).executeAlgorithmOMm();
+
+        Assertions.assertArrayEquals(new long[]{6, 6 * 5, 6 * 5 * 4}, metrics.getMessagesPerLevel());
+        Assertions.assertEquals(6 + 6 * 5 + 6 * 5 * 4, metrics.getMessages());
+        Assertions.assertEquals(6, metrics.getMessagesSent()[0]);
+        Assertions.assertEquals(0, metrics.getMessagesReceived()[0]);
+        Assertions.assertEquals(metrics.getMessages(), IntStream.range(0, 7).mapToLong(i -> metrics.getMessagesSent()[i]).sum());
+        Assertions.assertEquals(6 * (1 + 6), metrics.getMajorities());  // every lieutenant resolves its root and the 6 paths of level 1
+        Assertions.assertEquals(1, metrics.getStep(Metrics.Step.MAJORITY).getCount());
+        Assertions.assertEquals(1 + 6 + 6 * 5, metrics.getStep(Metrics.Step.SEND).getCount());
+        Assertions.assertTrue(metrics.getSnapshot().startsWith("{\"messages\":156,\"messagesPerLevel\":[6,30,120]"));
+    }
+
+    @Test
+    public void shouldExposeMetricsOnJmx() throws Exception {
+        Metrics metrics = new Metrics(4, 2);
+        metrics.register();
+        try {
+            buildByzantineGenerals(4, 1, metrics).executeAlgorithmOMm();
+            Object messages = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName(Metrics.OBJECT_NAME), "Messages");
+            Assertions.assertEquals(3L + 3 * 2, messages);
+        } finally {
+            metrics.unregister();
+        }
+    }
+
+    @Test
+    public void shouldReportPercentilesWithBoundedError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 1000; value++) {
+            histogram.record(value * 1000);
+        }
+
+        Assertions.assertEquals(1000, histogram.getCount());
+        Assertions.assertEquals(1_000_000, histogram.getMax());
+        Assertions.assertEquals(500_500, histogram.getMean(), 1e-6);
+        Assertions.assertEquals(500_000, histogram.getValueAtPercentile(50), 500_000 * 0.125);
+        Assertions.assertEquals(990_000, histogram.getValueAtPercentile(99), 990_000 * 0.125);
+        Assertions.assertEquals(1_000_000, histogram.getValueAtPercentile(100));
+    }
+}
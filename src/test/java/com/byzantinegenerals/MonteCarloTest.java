@@ -0,0 +1,57 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+public class MonteCarloTest {
+
+    private static MonteCarlo buildMonteCarlo(Order order, int recursionLevel, String... generalNames) {
+        return new MonteCarlo(Arrays.asList(generalNames), order, recursionLevel, AlgorithmOMm::new);
+    }
+
+    @Test
+    public void shouldSucceedAllTrialsForNGreaterThan3M() {
+        TrialStatistics statistics = buildMonteCarlo(Order.ATTACK, 1, "G0", "G1", "G2", "G3").run(200, 42);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(200, statistics.getTrials()),
+                () -> Assertions.assertEquals(200, statistics.getSuccesses()),
+                () -> Assertions.assertEquals(200, statistics.getDecisions(Order.ATTACK) + statistics.getDecisions(Order.RETREAT)),
+                () -> Assertions.assertEquals(1.0, statistics.getSuccessRate()),
+                () -> Assertions.assertTrue(statistics.getSuccessRateLower() > 0.95),
+                () -> Assertions.assertEquals(1.0, statistics.getSuccessRateUpper(), 1e-9));
+    }
+
+    @Test
+    public void shouldBeReproducibleForTheSameSeed() {
+        MonteCarlo monteCarlo = buildMonteCarlo(Order.RETREAT, 2, "G0", "G1", "G2", "G3", "G4");
+
+        TrialStatistics first = monteCarlo.run(200, 7);
+        TrialStatistics second = monteCarlo.run(200, 7);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(first.getSuccesses(), second.getSuccesses()),
+                () -> Assertions.assertEquals(first.getDecisions(Order.ATTACK), second.getDecisions(Order.ATTACK)),
+                () -> Assertions.assertEquals(first.getUndecided(), second.getUndecided()));
+    }
+
+    @Test
+    public void shouldCombineStatistics() {
+        TrialStatistics statistics = new TrialStatistics();
+        statistics.add(true, Order.ATTACK);
+        TrialStatistics other = new TrialStatistics();
+        other.add(false, null);
+        other.add(true, Order.RETREAT);
+
+        statistics.combine(other);
+
+        Assertions.assertAll(
+                () -> Assertions.assertEquals(3, statistics.getTrials()),
+                () -> Assertions.assertEquals(2, statistics.getSuccesses()),
+                () -> Assertions.assertEquals(1, statistics.getDecisions(Order.ATTACK)),
+                () -> Assertions.assertEquals(1, statistics.getDecisions(Order.RETREAT)),
+                () -> Assertions.assertEquals(1, statistics.getUndecided()));
+    }
+}
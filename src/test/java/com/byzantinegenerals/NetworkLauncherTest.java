@@ -0,0 +1,68 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class NetworkLauncherTest {
+
+    private static List<Order> sequentialDecisions(List<String> generalNames, Order order, int m, List<Integer> traitors) {
+        List<General> generals = IntStream.range(0, generalNames.size())
+                .mapToObj(i -> new General(i, generalNames.get(i), !traitors.contains(i)))
+                .collect(Collectors.toList());
+        new ByzantineGenerals(generals, order, m).executeAlgorithmOMm();
+        return generals.stream().map(General::getOrder).collect(Collectors.toList());
+    }
+
+    @Test
+    public void shouldDecideAsSequentialWithTraitor() throws IOException {
+        List<String> generalNames = Arrays.asList("G0", "G1", "G2", "G3", "G4");
+        List<Integer> traitors = Arrays.asList(0, 2);
+
+        NetworkLauncher launcher = new NetworkLauncher(generalNames, 2, Order.ATTACK, traitors);
+        List<Order> decisions = launcher.launch();
+
+        Assertions.assertEquals(sequentialDecisions(generalNames, Order.ATTACK, 2, traitors), decisions);
+        // one frame per lieutenant in round 0, and one per pair of lieutenants in rounds 1 and 2
+        Assertions.assertEquals(4 + 2 * 4 * 3, launcher.getFramesSent());
+    }
+
+    @Test
+    public void shouldDecideCommanderOrderWhenLoyal() throws IOException {
+        List<String> generalNames = Arrays.asList("G0", "G1", "G2", "G3");
+
+        List<Order> decisions = new NetworkLauncher(generalNames, 1, Order.RETREAT, new ArrayList<>()).launch();
+
+        Assertions.assertTrue(decisions.stream().allMatch(Order.RETREAT::equals));
+    }
+
+    @Test
+    public void shouldKillNodesThatNeverAnswer() {
+        List<String> generalNames = Arrays.asList("G0", "G1", "G2", "G3");
+        NetworkLauncher launcher = new NetworkLauncher(generalNames, 1, Order.ATTACK, new ArrayList<>());
+        launcher.setNode(2, SilentNode.class);
+        launcher.setTimeout(2, TimeUnit.SECONDS);
+
+        long start = System.nanoTime();
+        IOException e = Assertions.assertThrows(IOException.class, launcher::launch);
+        Assertions.assertTrue(e.getMessage().contains("did not finish"), e.getMessage());
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(20));
+    }
+
+    /**
+     * A general that never answers nor closes its output.
+     */
+    public static class SilentNode {
+
+        public static void main(String[] args) throws InterruptedException {
+            Thread.sleep(Long.MAX_VALUE);
+        }
+    }
+}
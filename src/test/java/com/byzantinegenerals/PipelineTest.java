@@ -0,0 +1,93 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PipelineTest {
+
+    /**
+     * Builds the generals, with the given traitors.
+     */
+    private static List<General> buildGenerals(int totalGenerals, List<Integer> traitors) {
+        return IntStream.range(0, totalGenerals)
+                .mapToObj(i -> new General(i, "G" + i, !traitors.contains(i)))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void shouldDecideEveryCommandInOrder() {
+        List<General> generals = buildGenerals(7, Arrays.asList(2, 5));
+        List<Order> commands = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            commands.add(i % 3 == 0 ? Order.RETREAT : Order.ATTACK);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Pipeline pipeline = new Pipeline(generals, 2, executor, 8);
+            Assertions.assertEquals(commands, pipeline.run(commands));
+            Assertions.assertEquals(50, pipeline.getDecisions());
+            // waves of 8 / (2 + 2) instances, the last one running 2 + 2 rounds
+            Assertions.assertEquals(50 / 2 + 3, pipeline.getRounds());
+            Assertions.assertTrue(pipeline.getDecisionsPerSecond() > 0);
+        } finally {
+            executor.shutdown();
+        }
+
+        // instances run on copies, the generals themselves received no order
+        Assertions.assertTrue(generals.stream().allMatch(general -> general.getOrder() == Order.RETREAT));
+    }
+
+    @Test
+    public void shouldDecideAsSingleInstances() {
+        List<General> generals = buildGenerals(5, Arrays.asList(0, 3));   // more traitors than tolerated
+        List<Order> commands = Arrays.asList(Order.ATTACK, Order.RETREAT, Order.ATTACK, Order.ATTACK);
+
+        List<Order> expected = new ArrayList<>();
+        for (Order command : commands) {
+            ByzantineGenerals byzantineGenerals = new ByzantineGenerals(buildGenerals(5, Arrays.asList(0, 3)), command, 1);
+            byzantineGenerals.executeAlgorithmOMm();
+            expected.add(byzantineGenerals.getDecision());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Assertions.assertEquals(expected, new Pipeline(generals, 1, executor, 3).run(commands));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldKeepAtMostDepthInstances() {
+        List<General> generals = buildGenerals(7, Arrays.asList(1, 4));
+        int[] started = new int[1];
+        List<Order> decided = new ArrayList<>();
+        Iterable<Order> commands = () -> IntStream.range(0, 100)
+                .mapToObj(i -> {
+                    started[0]++;
+                    return Order.ATTACK;
+                })
+                .iterator();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            new Pipeline(generals, 2, executor, 5).run(commands, decision -> {
+                Assertions.assertTrue(started[0] - decided.size() <= 5, started[0] + " started, " + decided.size() + " decided");
+                decided.add(decision);
+            });
+        } finally {
+            executor.shutdown();
+        }
+        Assertions.assertEquals(100, decided.size());
+        Assertions.assertTrue(decided.stream().allMatch(Order.ATTACK::equals));
+    }
+}
@@ -0,0 +1,62 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+public class PlacementVerifierTest {
+
+    @Test
+    public void shouldEnumerateEveryPlacement() {
+        Set<Long> placements = new HashSet<>();
+        for (long rank = 0; rank < PlacementVerifier.binomial(9, 3); rank++) {
+            long placement = PlacementVerifier.placement(9, 3, rank);
+            Assertions.assertEquals(3, Long.bitCount(placement));
+            Assertions.assertTrue(placement < 1L << 9);
+            placements.add(placement);
+        }
+        Assertions.assertEquals(84, placements.size());
+        Assertions.assertEquals(0b111L, PlacementVerifier.placement(9, 3, 0));
+        Assertions.assertEquals(0b111L << 6, PlacementVerifier.placement(9, 3, 83));
+    }
+
+    @Test
+    public void shouldVerifyEveryPlacementOfTolerableTraitors() {
+        PlacementVerifier verifier = new PlacementVerifier(7, 2, TraitorStrategy.ODD_INDEX, AlgorithmOMm::new, true);
+
+        Assertions.assertFalse(verifier.isReduced());
+        Assertions.assertTrue(verifier.verify(Order.ATTACK, ForkJoinPool.commonPool()).isEmpty());
+        Assertions.assertEquals(1 + 7 + 21, verifier.getPlacements());
+        Assertions.assertEquals(verifier.getPlacements(), verifier.getExecutions());
+    }
+
+    @Test
+    public void shouldReportTheSameViolationsWhenReduced() {
+        // 5 generals do not tolerate 2 traitors
+        PlacementVerifier full = new PlacementVerifier(5, 2, TraitorStrategy.ALWAYS_OPPOSITE, AlgorithmOMm::new, false);
+        PlacementVerifier reduced = new PlacementVerifier(5, 2, TraitorStrategy.ALWAYS_OPPOSITE, AlgorithmOMm::new, true);
+        List<PlacementVerifier.Violation> expected = full.verify(Order.RETREAT, ForkJoinPool.commonPool());
+        List<PlacementVerifier.Violation> violations = reduced.verify(Order.RETREAT, ForkJoinPool.commonPool());
+
+        Assertions.assertTrue(reduced.isReduced());
+        Assertions.assertFalse(expected.isEmpty());
+        Assertions.assertTrue(reduced.getExecutions() < full.getExecutions());
+        for (boolean commander : new boolean[]{false, true}) {
+            for (int traitors = 0; traitors <= 2; traitors++) {
+                int count = traitors;
+                long placements = expected.stream()
+                        .filter(violation -> violation.getTraitors().get(0) == commander && violation.getTraitors().cardinality() == count)
+                        .count();
+                long reducedPlacements = violations.stream()
+                        .filter(violation -> violation.getTraitors().get(0) == commander && violation.getTraitors().cardinality() == count)
+                        .mapToLong(PlacementVerifier.Violation::getPlacements)
+                        .sum();
+                Assertions.assertEquals(placements, reducedPlacements, "commander traitor " + commander + ", " + count + " traitors");
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class SimulatedAlgorithmOMmTest {
+
+    private static final long MILLISECOND = 1_000_000;
+
+    private static List<General> generals(int totalGenerals, int m) {
+        return IntStream.range(0, totalGenerals)
+                .mapToObj(i -> new General(i, "G" + i, i % 2 == 0 || i > 2 * m))    // m traitors, commander loyal
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the decision of each general.
+     */
+    private static List<Order> decide(List<General> generals, int m, Algorithm algorithm) {
+        new ByzantineGenerals(generals, Order.ATTACK, m, algorithm).executeAlgorithmOMm();
+        return generals.stream().map(General::getOrder).collect(Collectors.toList());
+    }
+
+    @TestFactory
+    public List<DynamicTest> shouldDecideAsRecursiveOnReliableNetwork() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (int m = 1; m <= 3; m++) {
+            int n = 3 * m + 1;
+            int mI = m;
+            NetworkModel network = new NetworkModel(NetworkModel.Latency.exponential(MILLISECOND, 2 * MILLISECOND), 0)
+                    .setLink(0, 1, NetworkModel.Latency.fixed(9 * MILLISECOND), 0);
+            SimulatedAlgorithmOMm simulated = new SimulatedAlgorithmOMm(network, 1000 * MILLISECOND, m);
+            tests.add(DynamicTest.dynamicTest("n=" + n + " m=" + m, () -> {
+                Assertions.assertEquals(decide(generals(n, mI), mI, new AlgorithmOMm()), decide(generals(n, mI), mI, simulated));
+                Assertions.assertEquals(ExecutionPlanner.messages(n - 1, mI), simulated.getMessages());
+                Assertions.assertEquals(simulated.getMessages(), simulated.getEvents());
+                Assertions.assertEquals(0, simulated.getLost() + simulated.getLate());
+                Assertions.assertEquals(n - 1, simulated.getDecisions().getCount());
+                Assertions.assertTrue(simulated.getTime() >= 9 * MILLISECOND);
+            }));
+        }
+        return tests;
+    }
+
+    @Test
+    public void shouldUseRetreatWhenNoValueIsReceived() {
+        // every message arrives after its deadline
+        SimulatedAlgorithmOMm late = new SimulatedAlgorithmOMm(new NetworkModel(NetworkModel.Latency.fixed(2 * MILLISECOND), 0), MILLISECOND, 0);
+        List<General> generals = generals(7, 2);
+        decide(generals, 2, late);
+        Assertions.assertEquals("IC2", ByzantineGenerals.violatedCondition(generals, Order.ATTACK));
+        Assertions.assertEquals(late.getMessages(), late.getLate());
+        Assertions.assertEquals(3 * MILLISECOND, late.getTime());
+        for (General lieutenant : generals.subList(1, generals.size())) {
+            Assertions.assertEquals(Order.RETREAT, lieutenant.getOrder());
+        }
+
+        // losing messages on the links of the traitor G1
+        NetworkModel network = new NetworkModel(NetworkModel.Latency.uniform(0, MILLISECOND), 0);
+        for (int receiver = 2; receiver <= 6; receiver++) {
+            network.setLink(1, receiver, NetworkModel.Latency.fixed(0), 0.5);
+        }
+        SimulatedAlgorithmOMm lossy = new SimulatedAlgorithmOMm(network, MILLISECOND, 0);
+        SimulatedAlgorithmOMm same = new SimulatedAlgorithmOMm(network, MILLISECOND, 0);
+        List<General> lossyGenerals = generals(7, 1);
+        Assertions.assertEquals(decide(generals(7, 1), 1, same), decide(lossyGenerals, 1, lossy));
+        Assertions.assertTrue(lossy.getLost() > 0);
+        Assertions.assertEquals(same.getLost(), lossy.getLost());
+        Assertions.assertNull(ByzantineGenerals.violatedCondition(lossyGenerals, Order.ATTACK));
+    }
+
+    @Test
+    public void shouldPollInTimeOrder() {
+        EventQueue queue = new EventQueue();
+        for (int i = 0; i < 3000; i++) {
+            queue.add((i * 7919L) % 1000, i, 0, 0, 0, i % 2 == 0 ? Order.ATTACK : Order.RETREAT);
+        }
+        BitSet polled = new BitSet();
+        long time = 0;
+        while (queue.poll()) {
+            Assertions.assertTrue(queue.getTime() >= time);
+            time = queue.getTime();
+            polled.set(queue.getReceiver());
+            if (queue.getReceiver() >= 3000) {
+                Assertions.assertEquals(2000 + queue.getReceiver(), time);
+                continue;
+            }
+            Assertions.assertEquals((queue.getReceiver() * 7919L) % 1000, time);
+            Assertions.assertEquals(queue.getReceiver() % 2 == 0 ? Order.ATTACK : Order.RETREAT, queue.getOrder());
+            if (queue.getReceiver() % 3 == 0) {   // schedule later deliveries while polling
+                queue.add(5000 + queue.getReceiver(), 3000 + queue.getReceiver(), 0, 0, 0, Order.RETREAT);
+            }
+        }
+        Assertions.assertEquals(4000, polled.cardinality());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> queue.add(0, 0, 0, 0, 0, Order.ATTACK));
+    }
+}
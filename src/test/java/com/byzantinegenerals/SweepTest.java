@@ -0,0 +1,94 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+public class SweepTest {
+
+    private static final String GRID = "n=3..7;m=1,2;order=ATTACK,RETREAT;seed=0..2";
+
+    @Test
+    public void shouldWriteARowPerCell() throws Exception {
+        File file = File.createTempFile("sweep", ".csv");
+        file.delete();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Sweep sweep = new Sweep(GRID, AlgorithmOMm::new, TraitorStrategy.ODD_INDEX);
+            Assertions.assertEquals(5 * 2 * 2 * 3, sweep.getCells());
+            Assertions.assertEquals(54, sweep.run(file, executor, 4));   // n=3 with m=2 is skipped
+            Assertions.assertEquals(6, sweep.getSkipped());
+
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            Assertions.assertEquals("# n=3..7;m=1..2;order=ATTACK,RETREAT;seed=0..2", lines.get(0));
+            Assertions.assertEquals(2 + 54, lines.size());
+            List<String> row = lines.stream().filter(line -> line.startsWith("14,")).collect(Collectors.toList());
+            // n=4, m=1, ATTACK, seed 2: 3 + 3 * 2 messages
+            Assertions.assertTrue(row.get(0).matches("14,2,9,\\d+,\\d+,-?\\d+,4,1,ATTACK,ATTACK,"), row.get(0));
+        } finally {
+            executor.shutdown();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void shouldResumeAnInterruptedSweep() throws Exception {
+        File file = File.createTempFile("sweep", ".bin");
+        file.delete();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Sweep sweep = new Sweep(GRID, AlgorithmOMm::new, TraitorStrategy.ODD_INDEX);
+            sweep.run(file, executor, 4);
+            long header = file.length() - 54L * Sweep.RECORD_BYTES;
+            byte[] prefix = new byte[Sweep.PREFIX_BYTES];
+            try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+                input.readFully(prefix);
+            }
+            Assertions.assertEquals(header, Long.parseLong(new String(prefix, StandardCharsets.US_ASCII).substring(2).trim()));
+            try (RandomAccessFile output = new RandomAccessFile(file, "rw")) {
+                output.setLength(header + 10L * Sweep.RECORD_BYTES + 7);  // 10 rows and a incomplete one
+            }
+
+            Assertions.assertEquals(44, sweep.run(file, executor, 4));
+            Assertions.assertEquals(header + 54L * Sweep.RECORD_BYTES, file.length());
+            ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(file.toPath())).order(ByteOrder.LITTLE_ENDIAN);
+            long cells = 0;
+            for (int record = 0; record < 54; record++) {
+                cells |= 1L << records.getLong((int) header + record * Sweep.RECORD_BYTES);
+            }
+            Assertions.assertEquals(54, Long.bitCount(cells));
+            Assertions.assertEquals(0, sweep.run(file, executor, 4));
+
+            Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> new Sweep("n=4;m=1", AlgorithmOMm::new, TraitorStrategy.ODD_INDEX).run(file, executor, 4));
+        } finally {
+            executor.shutdown();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void shouldKeepRangesWithoutExpandingThem() {
+        Sweep sweep = new Sweep("n=4,5,6..9;m=1;seed=0..300000000,300000001", AlgorithmOMm::new, TraitorStrategy.ODD_INDEX);
+        Assertions.assertEquals(6 * 300_000_002L, sweep.getCells());
+        Assertions.assertEquals("n=4..9;m=1;order=ATTACK;seed=0..300000001", sweep.toString());
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Sweep("n=4;m=1;seed=0..4000000000", AlgorithmOMm::new, TraitorStrategy.ODD_INDEX));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Sweep("n=4;m=1;seed=-9223372036854775808..9223372036854775807", AlgorithmOMm::new, TraitorStrategy.ODD_INDEX));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Sweep("n=4..3000000000;m=1", AlgorithmOMm::new, TraitorStrategy.ODD_INDEX));
+    }
+}
@@ -0,0 +1,69 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+public class TraceRecorderTest {
+
+    @Test
+    public void shouldRecordEveryMessage() throws IOException {
+        File file = File.createTempFile("trace", ".bin");
+        file.deleteOnExit();
+
+        // buffer smaller than the number of messages, so it is flushed while recording
+        try (TraceRecorder recorder = new TraceRecorder(file, 4)) {
+            ByzantineGenerals byzantineGenerals = new ByzantineGenerals.Builder(Arrays.asList("G0", "G1", "G2", "G3"))
+                    .setCommanderOrder(Order.ATTACK)
+                    .setRecursionLevel(0)
+                    .setRecorder(recorder)
+                    .build();
+            byzantineGenerals.executeAlgorithmOMm();
+        }
+
+        try (TraceDecoder decoder = new TraceDecoder(file)) {
+            Assertions.assertEquals(3, decoder.getCount());
+            for (int receiver = 1; receiver <= 3; receiver++) {
+                Assertions.assertTrue(decoder.next());
+                Assertions.assertEquals(0, decoder.getSender());
+                Assertions.assertEquals(receiver, decoder.getReceiver());
+                Assertions.assertEquals(0, decoder.getLevel());
+                Assertions.assertEquals(Order.ATTACK, decoder.getOrder());
+            }
+            Assertions.assertFalse(decoder.next());
+        }
+    }
+
+    @Test
+    public void shouldRecordRelayPaths() throws IOException {
+        File file = File.createTempFile("trace", ".bin");
+        file.deleteOnExit();
+
+        try (TraceRecorder recorder = new TraceRecorder(file, 4)) {
+            ByzantineGenerals byzantineGenerals = new ByzantineGenerals.Builder(Arrays.asList("G0", "G1", "G2", "G3"))
+                    .setCommanderOrder(Order.RETREAT)
+                    .setRecursionLevel(1)
+                    .setRecorder(recorder)
+                    .build();
+            byzantineGenerals.executeAlgorithmOMm();
+            Assertions.assertEquals(3 + 3 * 2, recorder.getCount());
+        }
+
+        // windows smaller than the number of records, so the records are mapped in several windows
+        try (TraceDecoder decoder = new TraceDecoder(file, 2)) {
+            Assertions.assertEquals(3 + 3 * 2, decoder.getCount());
+            int relays = 0;
+            while (decoder.next()) {
+                if (decoder.getLevel() == 1) {
+                    relays++;
+                    Assertions.assertNotEquals(0, decoder.getSender());
+                    Assertions.assertTrue(decoder.getRank() < 3);
+                }
+            }
+            Assertions.assertEquals(3 * 2, relays);
+        }
+    }
+}
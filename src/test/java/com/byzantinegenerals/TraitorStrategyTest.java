@@ -0,0 +1,86 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public class TraitorStrategyTest {
+
+    private static final List<TraitorStrategy> STRATEGIES = Arrays.asList(TraitorStrategy.ODD_INDEX,
+            TraitorStrategy.ALWAYS_OPPOSITE, TraitorStrategy.SPLIT_VOTE, TraitorStrategy.random(7),
+            TraitorStrategy.perPath((level, rank) -> rank % 2, TraitorStrategy.SPLIT_VOTE, TraitorStrategy.random(3)));
+
+    private static BitSet traitors(int... ids) {
+        BitSet traitors = new BitSet();
+        Arrays.stream(ids).forEach(traitors::set);
+        return traitors;
+    }
+
+    @TestFactory
+    public List<DynamicTest> shouldSendTheSameOrdersWordWise() {
+        List<DynamicTest> tests = new ArrayList<>();
+        for (TraitorStrategy strategy : STRATEGIES) {
+            for (Order order : Order.values()) {
+                tests.add(DynamicTest.dynamicTest(strategy + " " + order, () -> {
+                    int count = 131;
+                    for (int index = 1; index <= count; index++) {   // words starting at odd and even indexes
+                        long orders = strategy.orders(order, index, count, 2, 9);
+                        for (int i = 0; i < Long.SIZE && index + i <= count; i++) {
+                            Order expected = strategy.order(order, index + i, count, 2, 9);
+                            Assertions.assertEquals(expected == Order.ATTACK, (orders & (1L << i)) != 0, "index " + (index + i));
+                        }
+                    }
+                }));
+            }
+        }
+        return tests;
+    }
+
+    @Test
+    public void shouldSplitTheVoteWhateverTheOrder() {
+        General commander = new General(0, "G0", false);
+        commander.setStrategy(TraitorStrategy.SPLIT_VOTE);
+        for (Order order : Order.values()) {
+            Assertions.assertEquals(Order.ATTACK, commander.scrambleOrder(order, 3, 6, 0, 0));
+            Assertions.assertEquals(Order.RETREAT, commander.scrambleOrder(order, 4, 6, 0, 0));
+        }
+    }
+
+    @Test
+    public void shouldFindAdversaryBreakingAgreement() {
+        ExhaustiveAdversarySearch search = new ExhaustiveAdversarySearch(7, 1, traitors(0, 3), STRATEGIES, AlgorithmOMm::new);
+        TraitorStrategy[] adversary = search.search(Order.ATTACK, ForkJoinPool.commonPool());
+
+        Assertions.assertNotNull(adversary);
+        Assertions.assertNotNull(adversary[0]);
+        Assertions.assertNotNull(adversary[3]);
+        Assertions.assertNull(adversary[1]);
+        Assertions.assertTrue(search.getEvaluated() > 0);
+        Assertions.assertEquals(STRATEGIES.size() * STRATEGIES.size(), search.getEvaluated() + search.getSkipped(), search.toString());
+    }
+
+    @Test
+    public void shouldSkipTolerableTraitors() {
+        ExhaustiveAdversarySearch search = new ExhaustiveAdversarySearch(7, 2, traitors(0, 4), STRATEGIES, AlgorithmOMm::new);
+
+        Assertions.assertNull(search.search(Order.RETREAT, ForkJoinPool.commonPool()));
+        Assertions.assertEquals(0, search.getEvaluated());
+        Assertions.assertEquals(STRATEGIES.size() * STRATEGIES.size(), search.getSkipped());
+    }
+
+    @Test
+    public void shouldSearchAlgorithmsWithoutGuarantee() {
+        ExhaustiveAdversarySearch search = new ExhaustiveAdversarySearch(7, 1, traitors(4), STRATEGIES, AlgorithmPhaseKing::new);
+        search.search(Order.RETREAT, ForkJoinPool.commonPool());
+
+        Assertions.assertTrue(search.getEvaluated() > 0);
+        Assertions.assertEquals(STRATEGIES.size(), search.getEvaluated() + search.getSkipped(), search.toString());
+    }
+}
@@ -0,0 +1,81 @@
+package com.byzantinegenerals;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TreeStorageTest {
+
+    /**
+     * Gets the decision of each general, deciding with the information trees on a storage.
+     */
+    private static List<Order> decide(int totalGenerals, int m, TreeStorage storage) {
+        List<General> generals = IntStream.range(0, totalGenerals)
+                .mapToObj(i -> new General(i, "G" + i, i % 2 == 0 || i > 2 * m + 1))    // m + 1 traitors, commander loyal
+                .collect(Collectors.toList());
+        ByzantineGenerals byzantineGenerals = new ByzantineGenerals(generals, Order.ATTACK, m, new AlgorithmOMm(storage));
+        byzantineGenerals.executeAlgorithmOMm();
+        return generals.stream().map(General::getOrder).collect(Collectors.toList());
+    }
+
+    @TestFactory
+    public List<DynamicTest> shouldDecideAsOnHeap() throws IOException {
+        List<DynamicTest> tests = new ArrayList<>();
+        try (MappedTreeStorage mapped = new MappedTreeStorage(null)) {
+            for (int m = 1; m <= 2; m++) {
+                int n = 3 * m + 2;
+                List<Order> expected = decide(n, m, TreeStorage.HEAP);
+                List<Order> offHeap = decide(n, m, TreeStorage.OFF_HEAP);
+                List<Order> onFile = decide(n, m, mapped);
+                tests.add(DynamicTest.dynamicTest("OFF_HEAP n=" + n + " m=" + m, () -> Assertions.assertEquals(expected, offHeap)));
+                tests.add(DynamicTest.dynamicTest("mapped n=" + n + " m=" + m, () -> Assertions.assertEquals(expected, onFile)));
+            }
+            Assertions.assertTrue(mapped.getSize() > 0);
+        }
+        return tests;
+    }
+
+    @Test
+    public void shouldReuseReleasedMappedRegions() throws IOException {
+        try (MappedTreeStorage mapped = new MappedTreeStorage(null)) {
+            List<Order> expected = decide(7, 2, TreeStorage.HEAP);
+            Assertions.assertEquals(expected, decide(7, 2, mapped));
+            long size = mapped.getSize();
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertEquals(expected, decide(7, 2, mapped));
+            }
+            Assertions.assertEquals(size, mapped.getSize());
+
+            // a region released twice is reused once, cleared
+            BitPlane plane = mapped.allocate(2);
+            plane.or(1, -1L);
+            mapped.release(plane);
+            mapped.release(plane);
+            Assertions.assertEquals(0L, mapped.allocate(2).get(1));
+            Assertions.assertEquals(size + 16, mapped.getSize());
+            mapped.allocate(2);
+            Assertions.assertEquals(size + 32, mapped.getSize());
+        }
+    }
+
+    @Test
+    public void shouldDeleteMappedFileOnClose() throws IOException {
+        File directory = new File(System.getProperty("java.io.tmpdir"));
+        MappedTreeStorage storage = new MappedTreeStorage(directory);
+        BitPlane plane = storage.allocate(3);
+        plane.or(2, 0b101L);
+        plane.and(2, ~0b1L);
+        Assertions.assertEquals(0b100L, plane.get(2));
+        Assertions.assertEquals(0L, plane.get(0));
+        storage.close();
+        Assertions.assertThrows(IllegalStateException.class, () -> storage.allocate(1));
+    }
+}